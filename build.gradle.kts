@@ -63,9 +63,11 @@ dependencies {
     implementation("org.flywaydb:flyway-database-postgresql")
 
     implementation("org.springframework.kafka:spring-kafka")
+    implementation("io.projectreactor.kafka:reactor-kafka")
     developmentOnly("org.springframework.boot:spring-boot-devtools")
 
     implementation("org.apache.commons:commons-lang3:3.17.0")
+    implementation("com.github.ben-manes.caffeine:caffeine")
 
     annotationProcessor("org.springframework.boot:spring-boot-configuration-processor")
 }
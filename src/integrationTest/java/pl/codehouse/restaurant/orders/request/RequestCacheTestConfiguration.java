@@ -0,0 +1,16 @@
+package pl.codehouse.restaurant.orders.request;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Primary;
+
+@TestConfiguration(proxyBeanMethods = false)
+public class RequestCacheTestConfiguration {
+
+    @Bean
+    @Primary
+    ResettableRequestCache resettableRequestCache(RequestCacheProperties properties, MeterRegistry meterRegistry) {
+        return new ResettableRequestCache(properties, meterRegistry);
+    }
+}
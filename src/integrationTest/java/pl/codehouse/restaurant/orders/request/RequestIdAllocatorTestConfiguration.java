@@ -0,0 +1,15 @@
+package pl.codehouse.restaurant.orders.request;
+
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Primary;
+
+@TestConfiguration(proxyBeanMethods = false)
+public class RequestIdAllocatorTestConfiguration {
+
+    @Bean
+    @Primary
+    ResettableRequestIdAllocator resettableRequestIdAllocator(RequestBatchRepository requestBatchRepository, IdAllocationProperties properties) {
+        return new ResettableRequestIdAllocator(requestBatchRepository, properties);
+    }
+}
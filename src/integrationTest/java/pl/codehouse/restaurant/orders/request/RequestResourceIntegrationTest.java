@@ -17,7 +17,9 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.reactive.AutoConfigureWebTestClient;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.context.annotation.Import;
+import org.springframework.core.ParameterizedTypeReference;
 import org.springframework.data.r2dbc.core.R2dbcEntityTemplate;
+import org.springframework.http.MediaType;
 import org.springframework.kafka.core.DefaultKafkaConsumerFactory;
 import org.springframework.kafka.test.utils.KafkaTestUtils;
 import org.springframework.test.context.ActiveProfiles;
@@ -26,25 +28,31 @@ import org.springframework.test.web.reactive.server.WebTestClient;
 import org.testcontainers.containers.KafkaContainer;
 import pl.codehouse.restaurant.orders.TestcontainersConfiguration;
 import reactor.core.publisher.Flux;
+import reactor.test.StepVerifier;
 
+import java.time.Duration;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 
 import static io.restassured.module.webtestclient.RestAssuredWebTestClient.given;
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.contains;
 import static org.hamcrest.Matchers.equalTo;
 import static org.hamcrest.Matchers.hasItems;
 import static org.hamcrest.Matchers.hasKey;
 import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
 import static pl.codehouse.restaurant.orders.request.MenuItemEntityBuilder.MENU_ITEM_1_ID;
 import static pl.codehouse.restaurant.orders.request.MenuItemEntityBuilder.MENU_ITEM_1_NAME;
+import static pl.codehouse.restaurant.orders.request.MenuItemEntityBuilder.MENU_ITEM_2_ID;
 import static pl.codehouse.restaurant.orders.request.MenuItemEntityBuilder.MENU_ITEM_2_NAME;
 import static pl.codehouse.restaurant.orders.request.MenuItemEntityBuilder.MENU_ITEM_3_ID;
 import static pl.codehouse.restaurant.orders.request.MenuItemEntityBuilder.MENU_ITEM_3_NAME;
 import static pl.codehouse.restaurant.orders.request.MenuItemEntityBuilder.aMenuItemEntity;
 import static pl.codehouse.restaurant.orders.request.MenuItemEntityBuilder.aMenuItemEntityThree;
 import static pl.codehouse.restaurant.orders.request.MenuItemEntityBuilder.aMenuItemEntityTwo;
+import static pl.codehouse.restaurant.orders.request.RequestEntityBuilder.CUSTOMER_ID;
 import static pl.codehouse.restaurant.orders.request.RequestEntityBuilder.REQUEST_ID;
 import static pl.codehouse.restaurant.orders.request.RequestEntityBuilder.aRequestEntity;
 import static pl.codehouse.restaurant.orders.request.RequestMenuItemEntityBuilder.REQUEST_MENU_ITEM_1_ID;
@@ -55,7 +63,7 @@ import static pl.codehouse.restaurant.orders.request.RequestMenuItemEntityBuilde
 @SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
 @AutoConfigureWebTestClient
 @ExtendWith(SpringExtension.class)
-@Import(TestcontainersConfiguration.class)
+@Import({TestcontainersConfiguration.class, RequestIdAllocatorTestConfiguration.class, RequestCacheTestConfiguration.class})
 class RequestResourceIntegrationTest {
     private static final int REQUEST_2_ID = REQUEST_ID + 10;
     private static final int REQUEST_2_MENU_ITEM_1_ID = REQUEST_MENU_ITEM_1_ID + 10;
@@ -73,12 +81,18 @@ class RequestResourceIntegrationTest {
     void setUp(
             @Autowired R2dbcEntityTemplate entityTemplate,
             @Autowired Flyway flyway,
+            @Autowired MenuCatalog menuCatalog,
+            @Autowired ResettableRequestIdAllocator requestIdAllocator,
+            @Autowired ResettableRequestCache requestCache,
             @Autowired KafkaContainer kafkaContainer
     ) {
         RestAssuredWebTestClient.webTestClient(webTestClient);
 
         flyway.clean();
         flyway.migrate();
+        menuCatalog.invalidate();
+        requestIdAllocator.reset();
+        requestCache.reset();
         
         // Insert menu items
         Flux.just(
@@ -168,6 +182,377 @@ class RequestResourceIntegrationTest {
                 .containsEntry("quantity", -1);
     }
 
+    @Test
+    @DisplayName("should return the original request when creation is retried with the same idempotency key")
+    void should_return_original_request_when_idempotency_key_is_reused() {
+        // Given
+        Map<String, Object> payload = Map.of(
+                "customerId", "1010",
+                "menuItems", List.of(Map.of("menuId", MENU_ITEM_1_ID, "quantity", 1)));
+
+        // When & Then
+        for (int attempt = 0; attempt < 2; attempt++) {
+            given()
+                    .accept(ContentType.JSON)
+                    .contentType(ContentType.JSON)
+                    .header("Idempotency-Key", "kiosk-1-order-1")
+                    .body(payload)
+
+                    .when()
+                    .post("/request")
+
+                    .then()
+                    .log().all(true)
+                    .statusCode(201)
+                    .body("requestId", equalTo(1000))
+                    .body("customerId", equalTo(1010));
+        }
+    }
+
+    @Test
+    @DisplayName("should create requests in batch and reject the ones with unknown menu items")
+    void should_create_requests_in_batch_when_payloads_are_valid() {
+        // Given
+        List<Map<String, Object>> payload = List.of(
+                Map.of(
+                        "customerId", "1010",
+                        "menuItems", List.of(
+                                Map.of("menuId", MENU_ITEM_1_ID, "quantity", 1),
+                                Map.of("menuId", MENU_ITEM_3_ID, "quantity", 2)
+                        )),
+                Map.of(
+                        "customerId", "1011",
+                        "menuItems", List.of(Map.of("menuId", 999, "quantity", 1))),
+                Map.of(
+                        "customerId", "1012",
+                        "menuItems", List.of(Map.of("menuId", MENU_ITEM_3_ID, "quantity", 1)))
+        );
+
+        // When & Then
+        given()
+                .accept(ContentType.JSON)
+                .contentType(ContentType.JSON)
+                .body(payload)
+
+                .when()
+                .post("/request/batch")
+
+                .then()
+                .log().all(true)
+                .statusCode(200)
+                .contentType(ContentType.JSON)
+                .body("$.size()", is(3))
+                .body("index", hasItems(0, 1, 2))
+                .body("[0].request.customerId", equalTo(1010))
+                .body("[0].request.menuItems.size()", is(2))
+                .body("[0].request.totalItemsCount", equalTo(3))
+                .body("[1].error", equalTo("Not all request components were found"))
+                .body("[2].request.customerId", equalTo(1012))
+                .body("[2].request.menuItems.menuItemName.flatten()", hasItems(MENU_ITEM_3_NAME));
+
+        assertThat(KafkaTestUtils.getRecords(consumerServiceTest, Duration.ofSeconds(10), 2).records("shelf-events")).hasSize(2);
+    }
+
+    @Test
+    @DisplayName("should stream active requests matching the status and customer filters")
+    void should_stream_active_requests_when_filtered_by_status_and_customer(@Autowired R2dbcEntityTemplate entityTemplate) {
+        // Given
+        entityTemplate.getDatabaseClient()
+                .sql("UPDATE request_menu_item SET prepared = 1 WHERE id = :id")
+                .bind("id", REQUEST_MENU_ITEM_1_ID)
+                .then()
+                .block();
+
+        // When
+        Flux<Map<String, Object>> activeRequests = webTestClient.get()
+                .uri(uriBuilder -> uriBuilder.path("/request/active")
+                        .queryParam("status", RequestStatus.IN_PROGRESS)
+                        .queryParam("customerId", CUSTOMER_ID)
+                        .build())
+                .accept(MediaType.APPLICATION_NDJSON)
+                .exchange()
+                .expectStatus().isOk()
+                .returnResult(new ParameterizedTypeReference<Map<String, Object>>() {})
+                .getResponseBody();
+
+        // Then
+        StepVerifier.create(activeRequests)
+                .assertNext(request -> {
+                    assertThat(request).containsEntry("requestId", REQUEST_ID);
+                    assertThat(request).containsEntry("customerId", CUSTOMER_ID);
+                    assertThat(request).containsEntry("status", RequestStatus.IN_PROGRESS.name());
+                    assertThat((List<?>) request.get("menuItems")).hasSize(2);
+                })
+                .verifyComplete();
+    }
+
+    @Test
+    @DisplayName("should filter active requests by their stored status, which moves along with the prepared items")
+    void should_stream_active_requests_when_filtered_by_stored_status(@Autowired RequestService requestService) {
+        // Given
+        requestService.updateCollectedItems(REQUEST_ID, List.of(
+                        new PreparedMenuItemDelta(MENU_ITEM_1_ID, 1),
+                        new PreparedMenuItemDelta(MENU_ITEM_2_ID, 2)))
+                .block();
+
+        // When
+        Flux<Map<String, Object>> activeRequests = webTestClient.get()
+                .uri(uriBuilder -> uriBuilder.path("/request/active")
+                        .queryParam("status", RequestStatus.READY_TO_COLLECT)
+                        .build())
+                .accept(MediaType.APPLICATION_NDJSON)
+                .exchange()
+                .expectStatus().isOk()
+                .returnResult(new ParameterizedTypeReference<Map<String, Object>>() {})
+                .getResponseBody();
+
+        // Then
+        StepVerifier.create(activeRequests)
+                .assertNext(request -> {
+                    assertThat(request).containsEntry("requestId", REQUEST_ID);
+                    assertThat(request).containsEntry("status", RequestStatus.READY_TO_COLLECT.name());
+                })
+                .verifyComplete();
+    }
+
+    @Test
+    @DisplayName("should page through requests ordered by id")
+    void should_page_through_requests_when_listing_with_cursor() {
+        // When & Then
+        given()
+                .contentType(ContentType.JSON)
+                .queryParam("limit", 1)
+
+                .when()
+                .get("/request")
+
+                .then()
+                .log().all(true)
+                .statusCode(200)
+                .body("requests.size()", is(1))
+                .body("requests[0].requestId", equalTo(REQUEST_ID))
+                .body("next", equalTo(REQUEST_ID));
+
+        given()
+                .contentType(ContentType.JSON)
+                .queryParam("after", REQUEST_ID)
+                .queryParam("limit", 1)
+
+                .when()
+                .get("/request")
+
+                .then()
+                .log().all(true)
+                .statusCode(200)
+                .body("requests.size()", is(1))
+                .body("requests[0].requestId", equalTo(REQUEST_2_ID))
+                .body("next", nullValue());
+    }
+
+    @Test
+    @DisplayName("should list only requests with the given status")
+    void should_list_requests_with_status_when_filtered_by_status() {
+        // When & Then
+        given()
+                .contentType(ContentType.JSON)
+                .queryParam("status", RequestStatus.NEW.name())
+
+                .when()
+                .get("/request")
+
+                .then()
+                .log().all(true)
+                .statusCode(200)
+                .body("requests.requestId", contains(REQUEST_2_ID))
+                .body("next", nullValue());
+    }
+
+    @Test
+    @DisplayName("should return requested requests and mark the missing ones")
+    void should_return_requests_by_ids_when_some_are_missing() {
+        // When & Then
+        given()
+                .contentType(ContentType.JSON)
+                .queryParam("ids", REQUEST_2_ID + ",999," + REQUEST_ID)
+
+                .when()
+                .get("/request")
+
+                .then()
+                .log().all(true)
+                .statusCode(200)
+                .body("$.size()", is(3))
+                .body("requestId", contains(REQUEST_2_ID, 999, REQUEST_ID))
+                .body("found", contains(true, false, true))
+                .body("[0].request.customerId", equalTo(CUSTOMER_ID))
+                .body("[1].request", nullValue())
+                .body("[2].request.menuItems.size()", is(2));
+    }
+
+    @Test
+    @DisplayName("should return status and item counts of request")
+    void should_return_request_status_when_request_exists() {
+        // When & Then
+        given()
+                .contentType(ContentType.JSON)
+
+                .when()
+                .get("/request/{requestId}/status", REQUEST_ID)
+
+                .then()
+                .log().all(true)
+                .statusCode(200)
+                .body("requestId", equalTo(REQUEST_ID))
+                .body("status", equalTo("IN_PROGRESS"))
+                .body("preparedItems", equalTo(0))
+                .body("totalItems", equalTo(3));
+    }
+
+    @Test
+    @DisplayName("should return not modified when request did not change since the last fetch")
+    void should_return_not_modified_when_request_etag_matches() {
+        // Given
+        String etag = given()
+                .contentType(ContentType.JSON)
+
+                .when()
+                .get("/request/{requestId}", REQUEST_ID)
+
+                .then()
+                .statusCode(200)
+                .body("requestId", equalTo(REQUEST_ID))
+                .header("ETag", equalTo("\"request-" + REQUEST_ID + "-0\""))
+                .extract().header("ETag");
+
+        // When & Then
+        given()
+                .contentType(ContentType.JSON)
+                .header("If-None-Match", etag)
+
+                .when()
+                .get("/request/{requestId}", REQUEST_ID)
+
+                .then()
+                .log().all(true)
+                .statusCode(304);
+    }
+
+    @Test
+    @DisplayName("should return the ETag of the cached request together with its body when the database changed behind the cache")
+    void should_return_cached_request_with_its_etag_when_database_changed_behind_cache(
+            @Autowired RequestService requestService,
+            @Autowired R2dbcEntityTemplate entityTemplate
+    ) {
+        // Given
+        requestService.findById(REQUEST_ID).block();
+        entityTemplate.getDatabaseClient()
+                .sql("UPDATE request_menu_item SET prepared = 1 WHERE id = :id")
+                .bind("id", REQUEST_MENU_ITEM_1_ID)
+                .then()
+                .block();
+
+        // When & Then
+        given()
+                .contentType(ContentType.JSON)
+
+                .when()
+                .get("/request/{requestId}", REQUEST_ID)
+
+                .then()
+                .log().all(true)
+                .statusCode(200)
+                .header("ETag", equalTo("\"request-" + REQUEST_ID + "-0\""))
+                .body("preparedItemsCount", equalTo(0));
+    }
+
+    @Test
+    @DisplayName("should record request as collected when it is ready to collect")
+    void should_collect_request_when_request_is_ready_to_collect(@Autowired R2dbcEntityTemplate entityTemplate) {
+        // Given
+        entityTemplate.getDatabaseClient()
+                .sql("UPDATE request_menu_item SET prepared = quantity WHERE request_id = :requestId")
+                .bind("requestId", REQUEST_ID)
+                .then()
+                .then(entityTemplate.getDatabaseClient()
+                        .sql("UPDATE request SET status = 'READY_TO_COLLECT' WHERE id = :requestId")
+                        .bind("requestId", REQUEST_ID)
+                        .then())
+                .block();
+
+        // When & Then
+        given()
+                .contentType(ContentType.JSON)
+
+                .when()
+                .post("/request/{requestId}/collect", REQUEST_ID)
+
+                .then()
+                .log().all(true)
+                .statusCode(200)
+                .body("requestId", equalTo(REQUEST_ID))
+                .body("status", equalTo("COLLECTED"));
+
+        given()
+                .contentType(ContentType.JSON)
+
+                .when()
+                .post("/request/{requestId}/collect", REQUEST_ID)
+
+                .then()
+                .statusCode(409);
+    }
+
+    @Test
+    @DisplayName("should reject collecting request which is not ready to collect")
+    void should_reject_collect_when_request_is_not_ready_to_collect() {
+        // When & Then
+        given()
+                .contentType(ContentType.JSON)
+
+                .when()
+                .post("/request/{requestId}/collect", REQUEST_2_ID)
+
+                .then()
+                .log().all(true)
+                .statusCode(409);
+
+        given()
+                .contentType(ContentType.JSON)
+
+                .when()
+                .post("/request/{requestId}/collect", 999)
+
+                .then()
+                .statusCode(404);
+    }
+
+    @Test
+    @DisplayName("should return not modified when menu did not change since the last fetch")
+    void should_return_not_modified_when_menu_etag_matches() {
+        // Given
+        String etag = given()
+                .contentType(ContentType.JSON)
+
+                .when()
+                .get("/request/menu-items")
+
+                .then()
+                .statusCode(200)
+                .extract().header("ETag");
+
+        // When & Then
+        given()
+                .contentType(ContentType.JSON)
+                .header("If-None-Match", etag)
+
+                .when()
+                .get("/request/menu-items")
+
+                .then()
+                .log().all(true)
+                .statusCode(304);
+    }
+
     @Test
     @DisplayName("should return available menu items")
     void should_return_available_menu_items() {
@@ -64,7 +64,7 @@ import static pl.codehouse.restaurant.orders.request.RequestMenuItemEntityBuilde
 @SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
 @AutoConfigureWebTestClient(timeout = "PT10S")
 @ExtendWith(SpringExtension.class)
-@Import(TestcontainersConfiguration.class)
+@Import({TestcontainersConfiguration.class, RequestIdAllocatorTestConfiguration.class, RequestCacheTestConfiguration.class})
 class RequestResourceNotificationsIntegrationTest {
 
     private static final int REQUEST_2_ID = REQUEST_ID + 10;
@@ -89,6 +89,9 @@ class RequestResourceNotificationsIntegrationTest {
     void setUp(
             @Autowired R2dbcEntityTemplate entityTemplate,
             @Autowired Flyway flyway,
+            @Autowired MenuCatalog menuCatalog,
+            @Autowired ResettableRequestIdAllocator requestIdAllocator,
+            @Autowired ResettableRequestCache requestCache,
             @Autowired KafkaContainer kafkaContainer
     ) {
         RestAssuredWebTestClient.webTestClient(webTestClient);
@@ -99,6 +102,9 @@ class RequestResourceNotificationsIntegrationTest {
 
         flyway.clean();
         flyway.migrate();
+        menuCatalog.invalidate();
+        requestIdAllocator.reset();
+        requestCache.reset();
 
         // Insert menu items
         Flux.just(
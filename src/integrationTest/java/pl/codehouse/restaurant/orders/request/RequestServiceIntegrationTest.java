@@ -20,6 +20,7 @@ import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.context.annotation.Import;
 import org.springframework.data.r2dbc.core.R2dbcEntityTemplate;
 import org.springframework.kafka.core.DefaultKafkaConsumerFactory;
+import org.springframework.r2dbc.core.DatabaseClient;
 import org.springframework.kafka.test.utils.KafkaTestUtils;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
@@ -27,14 +28,18 @@ import org.testcontainers.containers.KafkaContainer;
 import pl.codehouse.restaurant.orders.TestcontainersConfiguration;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
 import reactor.test.StepVerifier;
 
 import java.time.Duration;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static pl.codehouse.restaurant.orders.request.MenuItemEntityBuilder.MENU_ITEM_1_ID;
 import static pl.codehouse.restaurant.orders.request.MenuItemEntityBuilder.MENU_ITEM_2_ID;
 import static pl.codehouse.restaurant.orders.request.MenuItemEntityBuilder.MENU_ITEM_3_ID;
 import static pl.codehouse.restaurant.orders.request.MenuItemEntityBuilder.MENU_ITEM_4_ID;
@@ -56,7 +61,7 @@ import static pl.codehouse.restaurant.orders.request.RequestMenuItemEntityBuilde
 @SpringBootTest
 @AutoConfigureWebTestClient
 @ExtendWith(SpringExtension.class)
-@Import(TestcontainersConfiguration.class)
+@Import({TestcontainersConfiguration.class, RequestIdAllocatorTestConfiguration.class, RequestCacheTestConfiguration.class})
 class RequestServiceIntegrationTest {
     private static final int REQUEST_2_ID = REQUEST_ID + 10;
     private static final int REQUEST_3_ID = REQUEST_ID + 15;
@@ -73,10 +78,16 @@ class RequestServiceIntegrationTest {
     void setUp(
             @Autowired KafkaContainer kafkaContainer,
             @Autowired Flyway flyway,
+            @Autowired MenuCatalog menuCatalog,
+            @Autowired ResettableRequestIdAllocator requestIdAllocator,
+            @Autowired ResettableRequestCache requestCache,
             @Autowired R2dbcEntityTemplate entityTemplate
     ) {
         flyway.clean();
         flyway.migrate();
+        menuCatalog.invalidate();
+        requestIdAllocator.reset();
+        requestCache.reset();
         List<Mono<Record>> initialRequestsMono = getInitRequests()
                 .stream()
                 .peek(o -> System.out.println("Inserting object: " + o.toString()))
@@ -182,6 +193,191 @@ class RequestServiceIntegrationTest {
                 .containsEntry("requestStatus", "IN_PROGRESS");
     }
 
+    @Test
+    @DisplayName("should update all packed Request Menu Items at once and publish a single status change")
+    void shouldUpdateAllPackedMenuItemsAtOnce() {
+        // given
+        List<PreparedMenuItemDelta> deltas = List.of(
+                new PreparedMenuItemDelta(MENU_ITEM_1_ID, 1),
+                new PreparedMenuItemDelta(MENU_ITEM_2_ID, 2));
+
+        // when
+        Mono<RequestDto> response = sut.updateCollectedItems(REQUEST_ID, deltas);
+
+        // then
+        StepVerifier.create(response)
+                .assertNext(result -> assertThat(result)
+                        .hasFieldOrPropertyWithValue("preparedItemsCount", 3)
+                        .hasFieldOrPropertyWithValue("totalItemsCount", 3)
+                        .hasFieldOrPropertyWithValue("status", RequestStatus.READY_TO_COLLECT))
+                .verifyComplete();
+
+        ConsumerRecord<Integer, String> singleRecord = KafkaTestUtils.getSingleRecord(consumerServiceTest, "request-status-changes");
+
+        Map<String, Object> eventPayload = getEventPayload(singleRecord);
+        assertThat(eventPayload)
+                .containsEntry("requestId", REQUEST_ID)
+                .containsEntry("packingStatus", "READY_TO_COLLECT")
+                .containsEntry("requestStatus", "READY_TO_COLLECT");
+    }
+
+    @Test
+    @DisplayName("should count every concurrent update of a request and publish its ready transition only once")
+    void shouldCountConcurrentUpdatesAndTransitionOnce(@Autowired R2dbcEntityTemplate entityTemplate) {
+        // given
+        List<UpdatePreparedMenuItemsDto> updates = List.of(
+                new UpdatePreparedMenuItemsDto(REQUEST_ID, MENU_ITEM_1_ID, 1),
+                new UpdatePreparedMenuItemsDto(REQUEST_ID, MENU_ITEM_2_ID, 1),
+                new UpdatePreparedMenuItemsDto(REQUEST_ID, MENU_ITEM_2_ID, 1));
+
+        // when
+        Flux.fromIterable(updates)
+                .flatMap(update -> Mono.defer(() -> sut.updateCollectedItems(update)).subscribeOn(Schedulers.parallel()))
+                .blockLast(Duration.ofSeconds(30));
+
+        // then
+        StepVerifier.create(sut.findById(REQUEST_ID))
+                .assertNext(result -> {
+                    assertThat(result)
+                            .hasFieldOrPropertyWithValue("preparedItemsCount", 3)
+                            .hasFieldOrPropertyWithValue("totalItemsCount", 3)
+                            .hasFieldOrPropertyWithValue("status", RequestStatus.READY_TO_COLLECT);
+                    assertThat(result.menuItems())
+                            .contains(
+                                    aRequestMenuItemOne().withPrepared(1).build(),
+                                    aRequestMenuItemTwo().withQuantity(2).withPrepared(2).build());
+                })
+                .verifyComplete();
+        String storedStatus = entityTemplate.getDatabaseClient()
+                .sql("SELECT status FROM request WHERE id = :requestId")
+                .bind("requestId", REQUEST_ID)
+                .map(row -> row.get("status", String.class))
+                .one()
+                .block();
+        assertThat(storedStatus).isEqualTo(RequestStatus.READY_TO_COLLECT.name());
+
+        List<Map<String, Object>> readyEvents = new LinkedList<>();
+        KafkaTestUtils.getRecords(consumerServiceTest, Duration.ofSeconds(5))
+                .records("request-status-changes")
+                .forEach(record -> {
+                    Map<String, Object> eventPayload = getEventPayload(record);
+                    if ("READY_TO_COLLECT".equals(eventPayload.get("requestStatus"))) {
+                        readyEvents.add(eventPayload);
+                    }
+                });
+        assertThat(readyEvents)
+                .singleElement()
+                .satisfies(eventPayload -> assertThat(eventPayload).containsEntry("requestId", REQUEST_ID));
+    }
+
+    @Test
+    @DisplayName("should move old collected requests to the archive and keep them readable")
+    void shouldArchiveOldCollectedRequests(
+            @Autowired RequestArchiver requestArchiver,
+            @Autowired R2dbcEntityTemplate entityTemplate
+    ) {
+        // given
+        DatabaseClient databaseClient = entityTemplate.getDatabaseClient();
+        databaseClient.sql("UPDATE request SET created_at = created_at - INTERVAL '2 days' WHERE id = :requestId")
+                .bind("requestId", REQUEST_4_ID)
+                .then()
+                .block();
+        databaseClient.sql("UPDATE request_menu_item SET created_at = created_at - INTERVAL '2 days' WHERE request_id = :requestId")
+                .bind("requestId", REQUEST_4_ID)
+                .then()
+                .block();
+        databaseClient.sql("INSERT INTO request_idempotency_key (idempotency_key, request_id) VALUES ('archived-request-key', :requestId)")
+                .bind("requestId", REQUEST_4_ID)
+                .then()
+                .block();
+
+        // when
+        requestArchiver.archive().block();
+
+        // then
+        assertThat(countRows(databaseClient, "SELECT COUNT(*) AS count FROM request WHERE id = :requestId")).isZero();
+        assertThat(countRows(databaseClient, "SELECT COUNT(*) AS count FROM request_archive WHERE id = :requestId")).isEqualTo(1);
+        assertThat(countRows(databaseClient, "SELECT COUNT(*) AS count FROM request_menu_item_archive WHERE request_id = :requestId")).isEqualTo(1);
+        assertThat(countRows(databaseClient, "SELECT COUNT(*) AS count FROM request_idempotency_key WHERE request_id = :requestId")).isZero();
+        assertThat(countRows(databaseClient, "SELECT COUNT(*) AS count FROM request WHERE id <> :requestId")).isEqualTo(3);
+
+        StepVerifier.create(sut.findById(REQUEST_4_ID))
+                .assertNext(result -> assertThat(result)
+                        .hasFieldOrPropertyWithValue("preparedItemsCount", 1)
+                        .hasFieldOrPropertyWithValue("totalItemsCount", 1))
+                .verifyComplete();
+        StepVerifier.create(sut.findByIds(List.of(REQUEST_4_ID)))
+                .assertNext(results -> assertThat(results)
+                        .singleElement()
+                        .satisfies(result -> assertThat(result.request().menuItems()).hasSize(1)))
+                .verifyComplete();
+        StepVerifier.create(sut.findPage(RequestStatus.COLLECTED, 0, 10))
+                .assertNext(page -> assertThat(page.requests())
+                        .extracting(RequestDto::requestId)
+                        .containsExactly(REQUEST_4_ID))
+                .verifyComplete();
+    }
+
+    @Test
+    @DisplayName("should move rows of a day out of the default partition when its partition is created")
+    void shouldMoveDefaultPartitionRowsWhenPartitionIsCreated(@Autowired R2dbcEntityTemplate entityTemplate) {
+        // given
+        DatabaseClient databaseClient = entityTemplate.getDatabaseClient();
+        databaseClient.sql("UPDATE request SET created_at = CURRENT_DATE + 30 WHERE id = :requestId")
+                .bind("requestId", REQUEST_4_ID)
+                .then()
+                .block();
+        assertThat(countRows(databaseClient, "SELECT COUNT(*) AS count FROM request_default WHERE id = :requestId")).isEqualTo(1);
+
+        // when
+        databaseClient.sql("SELECT create_request_partitions(30)")
+                .then()
+                .block();
+
+        // then
+        assertThat(countRows(databaseClient, "SELECT COUNT(*) AS count FROM request_default WHERE id = :requestId")).isZero();
+        assertThat(countRows(databaseClient, "SELECT COUNT(*) AS count FROM request WHERE id = :requestId AND created_at = CURRENT_DATE + 30"))
+                .isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("should move requests of a partition past the retention to the archive and drop the partition")
+    void shouldArchiveRequestsOfDroppedPartition(@Autowired R2dbcEntityTemplate entityTemplate) {
+        // given
+        DatabaseClient databaseClient = entityTemplate.getDatabaseClient();
+        String todayPartition = "request_" + LocalDate.now().format(DateTimeFormatter.BASIC_ISO_DATE);
+
+        // when
+        Integer dropped = databaseClient.sql("SELECT drop_request_partitions(-1) AS dropped")
+                .map(row -> row.get("dropped", Integer.class))
+                .one()
+                .block();
+
+        // then
+        assertThat(dropped).isEqualTo(1);
+        Long remainingPartitions = databaseClient.sql("SELECT COUNT(*) AS count FROM pg_class WHERE relname = :partition")
+                .bind("partition", todayPartition)
+                .map(row -> row.get("count", Long.class))
+                .one()
+                .block();
+        assertThat(remainingPartitions).isZero();
+        assertThat(countRows(databaseClient, "SELECT COUNT(*) AS count FROM request_archive WHERE id = :requestId")).isEqualTo(1);
+        assertThat(countRows(databaseClient, "SELECT COUNT(*) AS count FROM request_partition_key WHERE id = :requestId")).isZero();
+        StepVerifier.create(sut.findById(REQUEST_4_ID))
+                .assertNext(result -> assertThat(result)
+                        .hasFieldOrPropertyWithValue("preparedItemsCount", 1)
+                        .hasFieldOrPropertyWithValue("totalItemsCount", 1))
+                .verifyComplete();
+    }
+
+    private static long countRows(DatabaseClient databaseClient, String query) {
+        return databaseClient.sql(query)
+                .bind("requestId", REQUEST_4_ID)
+                .map(row -> row.get("count", Long.class))
+                .one()
+                .block();
+    }
+
     private static void assertExpectedRequestIds(RequestDto requestDto, LinkedList<Integer> expectedRecords, AtomicInteger totalItemsCount) {
         assertThat(requestDto.requestId()).isIn(expectedRecords);
         expectedRecords.removeIf(r -> r.equals(requestDto.requestId()));
@@ -0,0 +1,41 @@
+package pl.codehouse.restaurant.orders.request;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.IntFunction;
+import reactor.core.publisher.Mono;
+
+/**
+ * Request cache of the integration tests, which can drop all the requests it cached so far.
+ * Tests reset it after Flyway recreated the tables, so requests cached from the dropped tables
+ * are never served again.
+ */
+class ResettableRequestCache extends RequestCache {
+    private final RequestCacheProperties properties;
+    private final MeterRegistry meterRegistry;
+    private final AtomicReference<RequestCache> delegate;
+
+    ResettableRequestCache(RequestCacheProperties properties, MeterRegistry meterRegistry) {
+        super(properties, meterRegistry);
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+        this.delegate = new AtomicReference<>(new RequestCache(properties, meterRegistry));
+    }
+
+    @Override
+    Mono<VersionedRequest> get(int requestId, IntFunction<Mono<VersionedRequest>> loader) {
+        return delegate.get().get(requestId, loader);
+    }
+
+    @Override
+    void invalidate(int requestId) {
+        delegate.get().invalidate(requestId);
+    }
+
+    /**
+     * Discards all cached requests by replacing the underlying cache.
+     */
+    void reset() {
+        delegate.set(new RequestCache(properties, meterRegistry));
+    }
+}
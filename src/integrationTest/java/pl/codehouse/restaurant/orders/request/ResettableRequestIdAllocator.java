@@ -0,0 +1,40 @@
+package pl.codehouse.restaurant.orders.request;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+import reactor.core.publisher.Mono;
+
+/**
+ * Request ID allocator of the integration tests, which can drop the identifiers it reserved so far.
+ * Tests reset it after Flyway recreated the sequences, so identifiers reserved from the dropped
+ * sequences are never handed out again.
+ */
+class ResettableRequestIdAllocator extends RequestIdAllocator {
+    private final RequestBatchRepository requestBatchRepository;
+    private final IdAllocationProperties properties;
+    private final AtomicReference<RequestIdAllocator> delegate;
+
+    ResettableRequestIdAllocator(RequestBatchRepository requestBatchRepository, IdAllocationProperties properties) {
+        super(requestBatchRepository, properties);
+        this.requestBatchRepository = requestBatchRepository;
+        this.properties = properties;
+        this.delegate = new AtomicReference<>(new RequestIdAllocator(requestBatchRepository, properties));
+    }
+
+    @Override
+    Mono<List<Integer>> requestIds(int count) {
+        return delegate.get().requestIds(count);
+    }
+
+    @Override
+    Mono<List<Integer>> requestMenuItemIds(int count) {
+        return delegate.get().requestMenuItemIds(count);
+    }
+
+    /**
+     * Discards all identifiers reserved so far by replacing the underlying allocator.
+     */
+    void reset() {
+        delegate.set(new RequestIdAllocator(requestBatchRepository, properties));
+    }
+}
@@ -4,6 +4,7 @@ import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.boot.context.properties.ConfigurationPropertiesScan;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 /**
  * Main application class for the Restaurant Orders system.
@@ -14,12 +15,14 @@ import org.springframework.boot.context.properties.EnableConfigurationProperties
  *     <li>{@link SpringBootApplication} to enable auto-configuration and component scanning</li>
  *     <li>{@link EnableConfigurationProperties} to enable support for {@code @ConfigurationProperties}</li>
  *     <li>{@link ConfigurationPropertiesScan} to scan for {@code @ConfigurationProperties} classes</li>
+ *     <li>{@link EnableScheduling} to run periodic background tasks annotated with {@code @Scheduled}</li>
  * </ul>
  * </p>
  */
 @SpringBootApplication
 @EnableConfigurationProperties
 @ConfigurationPropertiesScan
+@EnableScheduling
 public class RestaurantOrdersApplication {
 
     /**
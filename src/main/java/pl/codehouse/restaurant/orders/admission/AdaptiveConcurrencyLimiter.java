@@ -0,0 +1,127 @@
+package pl.codehouse.restaurant.orders.admission;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.pool.PoolMetrics;
+import io.r2dbc.spi.ConnectionFactory;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+/**
+ * Concurrency limiter adapting its limit with additive increase and multiplicative decrease (AIMD).
+ *
+ * <p>The limit grows by one for every limit's worth of creations completed within the target latency,
+ * and shrinks by the backoff ratio whenever a creation is slow, fails, or completes while at least the configured
+ * number of callers are queued for a database connection. The limit is decreased at most once per target latency, so a burst
+ * of slow creations admitted together counts as a single congestion signal. The limit therefore follows
+ * the throughput the database can sustain instead of letting the connection pool queue grow without bounds.</p>
+ */
+@Component
+class AdaptiveConcurrencyLimiter {
+    private static final Logger logger = LoggerFactory.getLogger(AdaptiveConcurrencyLimiter.class);
+
+    private final AdmissionProperties properties;
+    private final ConnectionPool connectionPool;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final Counter rejected;
+    private volatile double limit;
+    private long lastDecreaseAt;
+
+    AdaptiveConcurrencyLimiter(AdmissionProperties properties, ConnectionFactory connectionFactory, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.connectionPool = connectionFactory instanceof ConnectionPool pool ? pool : null;
+        this.limit = properties.initialLimit();
+        this.lastDecreaseAt = System.nanoTime() - properties.targetLatency().toNanos();
+        Gauge.builder("request.admission.limit", this, AdaptiveConcurrencyLimiter::limit).register(meterRegistry);
+        Gauge.builder("request.admission.in-flight", inFlight, AtomicInteger::get).register(meterRegistry);
+        this.rejected = Counter.builder("request.admission.rejected").register(meterRegistry);
+    }
+
+    /**
+     * Admits a new unit of work if the current limit allows it.
+     *
+     * @return true if the work was admitted and {@link #release(Duration, boolean)} must be called once it completes.
+     */
+    boolean tryAcquire() {
+        while (true) {
+            int current = inFlight.get();
+            if (current >= (int) limit) {
+                rejected.increment();
+                return false;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Releases admitted work and adapts the limit to the observed outcome.
+     *
+     * @param latency   The time the admitted work took.
+     * @param succeeded Whether the work completed successfully.
+     */
+    void release(Duration latency, boolean succeeded) {
+        inFlight.decrementAndGet();
+        boolean congested = !succeeded || latency.compareTo(properties.targetLatency()) > 0 || poolSaturated();
+        synchronized (this) {
+            if (congested) {
+                decrease(latency);
+            } else {
+                limit = Math.min(properties.maxLimit(), limit + 1 / limit);
+            }
+        }
+    }
+
+    /**
+     * Releases admitted work whose latency does not reflect a single creation, such as a batch of creations.
+     * The latency of such work is not sampled, so it never increases the limit and only decreases it when it fails.
+     *
+     * @param latency   The time the admitted work took.
+     * @param succeeded Whether the work completed successfully.
+     */
+    void releaseUnsampled(Duration latency, boolean succeeded) {
+        inFlight.decrementAndGet();
+        if (!succeeded) {
+            synchronized (this) {
+                decrease(latency);
+            }
+        }
+    }
+
+    /**
+     * Releases admitted work abandoned by its client. The outcome of such work is unknown, so the limit is kept.
+     */
+    void releaseCancelled() {
+        inFlight.decrementAndGet();
+    }
+
+    double limit() {
+        return limit;
+    }
+
+    int inFlight() {
+        return inFlight.get();
+    }
+
+    private void decrease(Duration latency) {
+        long now = System.nanoTime();
+        if (now - lastDecreaseAt >= properties.targetLatency().toNanos()) {
+            lastDecreaseAt = now;
+            limit = Math.max(properties.minLimit(), limit * properties.backoffRatio());
+            logger.warn("Decreased admission limit to: {} after latency: {} ms", (int) limit, latency.toMillis());
+        }
+    }
+
+    private boolean poolSaturated() {
+        return connectionPool != null && connectionPool.getMetrics()
+                .map(PoolMetrics::pendingAcquireSize)
+                .filter(pending -> pending >= properties.pendingAcquireThreshold())
+                .isPresent();
+    }
+}
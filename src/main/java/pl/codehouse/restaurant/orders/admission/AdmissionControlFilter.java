@@ -0,0 +1,78 @@
+package pl.codehouse.restaurant.orders.admission;
+
+import java.time.Duration;
+import java.util.Set;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.SignalType;
+
+/**
+ * Sheds request creations exceeding the adaptive concurrency limit.
+ *
+ * <p>Only {@code POST} calls, which write to the database and emit events, are subject to admission control.
+ * Excess calls are rejected upfront with {@code 429 Too Many Requests} and a {@code Retry-After} header,
+ * while reads such as {@code GET /request/menu-items} are always served. Streaming imports are long-lived
+ * by design and would distort the latency signal, so they are not subject to admission control either.
+ * Batch creations are admitted as a single unit, but their latency grows with the number of requests they
+ * carry, so it is not sampled and they only adapt the limit when they fail. Calls cancelled by their client
+ * release their slot without adapting the limit.</p>
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+class AdmissionControlFilter implements WebFilter {
+    private static final Set<String> UNSAMPLED_PATHS = Set.of("/request/batch", "/request/stream");
+
+    private final AdaptiveConcurrencyLimiter limiter;
+    private final AdmissionProperties properties;
+
+    AdmissionControlFilter(AdaptiveConcurrencyLimiter limiter, AdmissionProperties properties) {
+        this.limiter = limiter;
+        this.properties = properties;
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        if (!HttpMethod.POST.equals(exchange.getRequest().getMethod()) || isStreaming(exchange)) {
+            return chain.filter(exchange);
+        }
+        if (!limiter.tryAcquire()) {
+            exchange.getResponse().setStatusCode(HttpStatus.TOO_MANY_REQUESTS);
+            exchange.getResponse().getHeaders().set(HttpHeaders.RETRY_AFTER, String.valueOf(Math.max(1, properties.retryAfter().toSeconds())));
+            return exchange.getResponse().setComplete();
+        }
+
+        long startedAt = System.nanoTime();
+        boolean sampled = !UNSAMPLED_PATHS.contains(exchange.getRequest().getPath().pathWithinApplication().value());
+        return chain.filter(exchange)
+                .doFinally(signal -> release(signal, Duration.ofNanos(System.nanoTime() - startedAt), succeeded(signal, exchange), sampled));
+    }
+
+    private void release(SignalType signal, Duration latency, boolean succeeded, boolean sampled) {
+        if (signal == SignalType.CANCEL) {
+            limiter.releaseCancelled();
+        } else if (sampled) {
+            limiter.release(latency, succeeded);
+        } else {
+            limiter.releaseUnsampled(latency, succeeded);
+        }
+    }
+
+    private static boolean isStreaming(ServerWebExchange exchange) {
+        return MediaType.APPLICATION_NDJSON.isCompatibleWith(exchange.getRequest().getHeaders().getContentType());
+    }
+
+    private static boolean succeeded(SignalType signal, ServerWebExchange exchange) {
+        HttpStatusCode status = exchange.getResponse().getStatusCode();
+        return signal == SignalType.ON_COMPLETE && (status == null || !status.is5xxServerError());
+    }
+}
@@ -0,0 +1,45 @@
+package pl.codehouse.restaurant.orders.admission;
+
+import java.time.Duration;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Configuration properties of the admission control applied to request creations.
+ *
+ * <p>The properties are loaded from the application's configuration
+ * file using the prefix "app.admission".</p>
+ *
+ * @param initialLimit  The number of concurrent creations admitted before any latency was observed.
+ * @param minLimit      The lowest concurrency limit the limiter may back off to.
+ * @param maxLimit      The highest concurrency limit the limiter may grow to.
+ * @param targetLatency The latency of an admitted creation above which the limit is decreased.
+ * @param backoffRatio  The factor applied to the limit when it is decreased, between 0 and 1.
+ * @param retryAfter    The delay suggested to rejected clients in the {@code Retry-After} header.
+ * @param pendingAcquireThreshold The number of callers queued for a database connection from which the pool counts as
+ *                                saturated and the limit is decreased.
+ */
+@ConfigurationProperties("app.admission")
+public record AdmissionProperties(
+        int initialLimit,
+        int minLimit,
+        int maxLimit,
+        Duration targetLatency,
+        double backoffRatio,
+        Duration retryAfter,
+        int pendingAcquireThreshold
+) {
+    /**
+     * Creates a new AdmissionProperties instance.
+     */
+    public AdmissionProperties {
+        if (minLimit <= 0 || minLimit > initialLimit || initialLimit > maxLimit) {
+            throw new IllegalArgumentException("Admission limits must satisfy 0 < min-limit <= initial-limit <= max-limit");
+        }
+        if (backoffRatio <= 0 || backoffRatio >= 1) {
+            throw new IllegalArgumentException("Admission backoff ratio must be between 0 and 1");
+        }
+        if (pendingAcquireThreshold <= 0) {
+            throw new IllegalArgumentException("Admission pending acquire threshold must be greater than zero");
+        }
+    }
+}
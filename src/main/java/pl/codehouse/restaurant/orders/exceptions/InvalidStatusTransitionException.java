@@ -0,0 +1,19 @@
+package pl.codehouse.restaurant.orders.exceptions;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+/**
+ * Exception thrown when a resource cannot move to the requested status from the status it is in.
+ */
+public class InvalidStatusTransitionException extends ResponseStatusException {
+
+    /**
+     * Constructs a new InvalidStatusTransitionException.
+     *
+     * @param message The detail message.
+     */
+    public InvalidStatusTransitionException(String message) {
+        super(HttpStatus.CONFLICT, message);
+    }
+}
@@ -0,0 +1,129 @@
+package pl.codehouse.restaurant.orders.request;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import pl.codehouse.commons.Command;
+import pl.codehouse.commons.Context;
+import pl.codehouse.commons.ExecutionResult;
+import reactor.core.publisher.Mono;
+
+/**
+ * Command for creating many requests at once.
+ * Menu items of all requests are resolved once from the {@link MenuCatalog}, and all accepted requests together with
+ * their menu items are stored with multi-row inserts, so the number of database round trips does not depend
+ * on the number of requests or items in the batch. Identifiers of the requests and their menu items are taken
+ * from the {@link RequestIdAllocator}, usually without accessing the database at all.
+ * Requests referencing unknown menu items are rejected individually without affecting the remaining ones.
+ */
+@Component
+class BatchCreateCommand implements Command<List<RequestPayload>, List<BatchRequestResult>> {
+    private static final Logger logger = LoggerFactory.getLogger(BatchCreateCommand.class);
+    private static final String MISSING_ORDER_COMPONENTS_ERROR_MESSAGE = "Not all request components were found";
+
+    private final MenuCatalog menuCatalog;
+    private final RequestBatchRepository requestBatchRepository;
+    private final RequestIdAllocator requestIdAllocator;
+    private final NewRequestEventPublisher newRequestEventPublisher;
+
+    BatchCreateCommand(MenuCatalog menuCatalog,
+                       RequestBatchRepository requestBatchRepository,
+                       RequestIdAllocator requestIdAllocator,
+                       NewRequestEventPublisher newRequestEventPublisher) {
+        this.menuCatalog = menuCatalog;
+        this.requestBatchRepository = requestBatchRepository;
+        this.requestIdAllocator = requestIdAllocator;
+        this.newRequestEventPublisher = newRequestEventPublisher;
+    }
+
+    @Override
+    @Transactional
+    public Mono<ExecutionResult<List<BatchRequestResult>>> execute(Context<List<RequestPayload>> context) {
+        List<RequestPayload> payloads = context.request();
+        logger.info("Executing the creation of {} new Requests", payloads.size());
+        if (payloads.isEmpty()) {
+            return Mono.just(ExecutionResult.success(List.of()));
+        }
+
+        Set<Integer> menuItemIds = payloads.stream()
+                .flatMap(payload -> payload.menuItems().stream())
+                .map(RequestedMenuItemsPayload::menuId)
+                .collect(Collectors.toSet());
+        return menuCatalog.resolve(menuItemIds)
+                .flatMap(menu -> createAll(payloads, menu))
+                .map(ExecutionResult::success);
+    }
+
+    private Mono<List<BatchRequestResult>> createAll(List<RequestPayload> payloads, MenuSnapshot menu) {
+        List<BatchRequestResult> results = new ArrayList<>();
+        List<Integer> acceptedIndexes = new ArrayList<>();
+        for (int index = 0; index < payloads.size(); index++) {
+            if (allMenuItemsKnown(payloads.get(index), menu)) {
+                acceptedIndexes.add(index);
+            } else {
+                logger.error("Request at position {} references unknown menu items", index);
+                results.add(BatchRequestResult.rejected(index, MISSING_ORDER_COMPONENTS_ERROR_MESSAGE));
+            }
+        }
+        if (acceptedIndexes.isEmpty()) {
+            return Mono.just(results);
+        }
+
+        int menuItemsCount = acceptedIndexes.stream().mapToInt(index -> payloads.get(index).menuItems().size()).sum();
+        return Mono.zip(requestIdAllocator.requestIds(acceptedIndexes.size()), requestIdAllocator.requestMenuItemIds(menuItemsCount))
+                .flatMap(ids -> {
+                    List<Integer> requestIds = ids.getT1();
+                    Iterator<Integer> requestMenuItemIds = ids.getT2().iterator();
+                    List<RequestEntity> requests = IntStream.range(0, acceptedIndexes.size())
+                            .mapToObj(i -> new RequestEntity(requestIds.get(i), payloads.get(acceptedIndexes.get(i)).customerId(), RequestStatus.NEW))
+                            .toList();
+                    List<RequestMenuItemEntity> requestMenuItems = new ArrayList<>(menuItemsCount);
+                    for (int i = 0; i < requests.size(); i++) {
+                        for (RequestedMenuItemsPayload item : payloads.get(acceptedIndexes.get(i)).menuItems()) {
+                            boolean immediate = menu.find(item.menuId()).orElseThrow().immediate();
+                            requestMenuItems.add(new RequestMenuItemEntity(
+                                    requestMenuItemIds.next(), requests.get(i).id(), item.menuId(), item.quantity(), 0, immediate));
+                        }
+                    }
+                    logger.info("Storing {} Requests with {} Request MenuItems", requests.size(), requestMenuItems.size());
+
+                    List<String> idempotencyKeys = acceptedIndexes.stream()
+                            .map(index -> payloads.get(index).idempotencyKey())
+                            .toList();
+                    return requestBatchRepository.insertRequests(requests, idempotencyKeys)
+                            .thenMany(requestBatchRepository.insertMenuItems(requestMenuItems))
+                            .collectMultimap(RequestMenuItemEntity::requestId)
+                            .map(storedItems -> IntStream.range(0, requests.size())
+                                    .mapToObj(i -> {
+                                        RequestEntity request = requests.get(i);
+                                        List<RequestMenuItemEntity> items = List.copyOf(storedItems.getOrDefault(request.id(), List.of()));
+                                        return BatchRequestResult.created(acceptedIndexes.get(i), RequestDto.from(request, items, menu));
+                                    })
+                                    .toList())
+                            .flatMap(created -> newRequestEventPublisher.publish(created.stream().map(BatchRequestResult::request).toList())
+                                    .thenReturn(created));
+                })
+                .map(created -> {
+                    results.addAll(created);
+                    results.sort(Comparator.comparingInt(BatchRequestResult::index));
+                    return results;
+                });
+    }
+
+    private static boolean allMenuItemsKnown(RequestPayload payload, MenuSnapshot menu) {
+        Collection<Integer> requestedIds = payload.menuItems().stream()
+                .map(RequestedMenuItemsPayload::menuId)
+                .collect(Collectors.toSet());
+        return requestedIds.size() == payload.menuItems().size()
+                && menu.containsAll(requestedIds);
+    }
+}
@@ -0,0 +1,67 @@
+package pl.codehouse.restaurant.orders.request;
+
+/**
+ * Represents the outcome of a single request within a batch creation.
+ * Exactly one of {@code request} and {@code error} is set.
+ *
+ * @param index The position of the request payload within the submitted batch.
+ * @param request The created request, or null if the request was rejected.
+ * @param error The reason of rejection, or null if the request was created.
+ */
+public record BatchRequestResult(
+        int index,
+        RequestDto request,
+        String error
+) {
+
+    /**
+     * Creates a result for a successfully created request.
+     *
+     * @param index The position of the request payload within the batch.
+     * @param request The created request.
+     * @return A new BatchRequestResult instance.
+     */
+    static BatchRequestResult created(int index, RequestDto request) {
+        return new BatchRequestResult(index, request, null);
+    }
+
+    /**
+     * Creates a result for a rejected request.
+     *
+     * @param index The position of the request payload within the batch.
+     * @param error The reason of rejection.
+     * @return A new BatchRequestResult instance.
+     */
+    static BatchRequestResult rejected(int index, String error) {
+        return new BatchRequestResult(index, null, error);
+    }
+
+    /**
+     * Places this result at the given position, e.g. when the batch was built of a subset of the submitted payloads.
+     *
+     * @param index The position of the request payload within the batch.
+     * @return A new BatchRequestResult instance.
+     */
+    BatchRequestResult withIndex(int index) {
+        return new BatchRequestResult(index, request, error);
+    }
+
+    /**
+     * Moves this result by the given number of positions, e.g. to index it within a stream of batches.
+     *
+     * @param offset The number of positions preceding the batch.
+     * @return A new BatchRequestResult instance.
+     */
+    BatchRequestResult withOffset(int offset) {
+        return new BatchRequestResult(offset + index, request, error);
+    }
+
+    /**
+     * Checks whether the request was created.
+     *
+     * @return true if the request was created, false otherwise.
+     */
+    public boolean isCreated() {
+        return request != null;
+    }
+}
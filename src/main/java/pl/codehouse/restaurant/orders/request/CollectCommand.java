@@ -0,0 +1,46 @@
+package pl.codehouse.restaurant.orders.request;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+import pl.codehouse.commons.Command;
+import pl.codehouse.commons.Context;
+import pl.codehouse.commons.ExecutionResult;
+import pl.codehouse.restaurant.orders.shelf.PackingStatus;
+import reactor.core.publisher.Mono;
+
+/**
+ * Command recording that a request ready to collect has been collected by the customer.
+ * The request moves to {@link RequestStatus#COLLECTED} only from {@link RequestStatus#READY_TO_COLLECT}, with a single
+ * statement, so a request collected twice or collected before it is ready is left untouched. Only an actual transition
+ * invalidates the cached request and is published.
+ */
+@Component
+class CollectCommand implements Command<Integer, RequestStatusTransition> {
+    private static final Logger logger = LoggerFactory.getLogger(CollectCommand.class);
+    private final RequestBatchRepository requestBatchRepository;
+    private final RequestStatusChangePublisher statusChangePublisher;
+    private final RequestCache requestCache;
+
+    CollectCommand(RequestBatchRepository requestBatchRepository,
+                   RequestStatusChangePublisher statusChangePublisher,
+                   RequestCache requestCache) {
+        this.requestBatchRepository = requestBatchRepository;
+        this.statusChangePublisher = statusChangePublisher;
+        this.requestCache = requestCache;
+    }
+
+    @Override
+    public Mono<ExecutionResult<RequestStatusTransition>> execute(Context<Integer> context) {
+        int requestId = context.request();
+        return requestBatchRepository.transitionStatus(requestId, RequestStatus.READY_TO_COLLECT, RequestStatus.COLLECTED)
+                .doOnNext(transition -> {
+                    if (transition.changed()) {
+                        logger.info("Request {} collected", requestId);
+                        requestCache.invalidate(requestId);
+                        statusChangePublisher.publishTransition(transition, PackingStatus.READY_TO_COLLECT);
+                    }
+                })
+                .map(ExecutionResult::success);
+    }
+}
@@ -0,0 +1,25 @@
+package pl.codehouse.restaurant.orders.request;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+import pl.codehouse.commons.Context;
+import pl.codehouse.commons.ExecutionResult;
+import reactor.core.publisher.Mono;
+
+/**
+ * Stores every new request in its own transaction, as soon as it arrives.
+ */
+@Service
+@ConditionalOnProperty(value = "app.group-commit.enabled", havingValue = "false", matchIfMissing = true)
+class DirectRequestCreator implements RequestCreator {
+    private final CreateCommand createCommand;
+
+    DirectRequestCreator(CreateCommand createCommand) {
+        this.createCommand = createCommand;
+    }
+
+    @Override
+    public Mono<ExecutionResult<RequestDto>> create(Context<RequestPayload> context) {
+        return createCommand.execute(context);
+    }
+}
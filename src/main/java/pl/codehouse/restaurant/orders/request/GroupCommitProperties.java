@@ -0,0 +1,33 @@
+package pl.codehouse.restaurant.orders.request;
+
+import java.time.Duration;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Configuration properties of the group commit of concurrently created requests.
+ *
+ * <p>The properties are loaded from the application's configuration
+ * file using the prefix "app.group-commit".</p>
+ *
+ * @param window               The longest time a request waits for other requests to be stored together with.
+ * @param maxBatchSize         The maximum number of requests stored in a single transaction.
+ * @param maxConcurrentCommits The maximum number of group transactions running at the same time.
+ */
+@ConfigurationProperties("app.group-commit")
+public record GroupCommitProperties(
+        Duration window,
+        int maxBatchSize,
+        int maxConcurrentCommits
+) {
+    /**
+     * Creates a new GroupCommitProperties instance.
+     */
+    public GroupCommitProperties {
+        if (window == null || window.isNegative() || window.isZero()) {
+            throw new IllegalArgumentException("Group commit window must be a positive duration");
+        }
+        if (maxBatchSize <= 0 || maxConcurrentCommits <= 0) {
+            throw new IllegalArgumentException("Group commit batch size and concurrency must be greater than zero");
+        }
+    }
+}
@@ -0,0 +1,167 @@
+package pl.codehouse.restaurant.orders.request;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+import pl.codehouse.commons.Context;
+import pl.codehouse.commons.ExecutionResult;
+import pl.codehouse.restaurant.orders.exceptions.ResourceNotFoundException;
+import pl.codehouse.restaurant.orders.exceptions.ResourceType;
+import reactor.core.Disposable;
+import reactor.core.Disposables;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+/**
+ * Stores concurrently created requests together, in a single transaction and with multi-row inserts.
+ *
+ * <p>Requests arriving within the configured window, up to the configured batch size, are handed to the
+ * {@link BatchCreateCommand} as one group, and every caller is completed with the outcome of its own request.
+ * If the group transaction fails as a whole, e.g. because of a duplicated idempotency key, every request
+ * of the group is retried on its own with the {@link CreateCommand}, so one request never fails the others.</p>
+ *
+ * <p>Groups are buffered with fair backpressure, so a window closing while all commit slots are busy waits for a free
+ * slot instead of failing the pipeline. Should the pipeline terminate nonetheless, every request still waiting in it
+ * is failed and a new pipeline is started for the following requests, so no caller is left waiting forever.</p>
+ */
+@Service
+@ConditionalOnProperty(value = "app.group-commit.enabled", havingValue = "true")
+class GroupCommitRequestCreator implements RequestCreator {
+    private static final Logger logger = LoggerFactory.getLogger(GroupCommitRequestCreator.class);
+    private static final Duration EMIT_RETRY_DURATION = Duration.ofMillis(100);
+
+    private final BatchCreateCommand batchCreateCommand;
+    private final CreateCommand createCommand;
+    private final GroupCommitProperties properties;
+    private final DistributionSummary batchSizes;
+    private final Timer commitTimer;
+    private final AtomicReference<Pipeline> pipeline = new AtomicReference<>();
+    private volatile boolean shutdown;
+
+    GroupCommitRequestCreator(BatchCreateCommand batchCreateCommand,
+                              CreateCommand createCommand,
+                              GroupCommitProperties properties,
+                              MeterRegistry meterRegistry) {
+        this.batchCreateCommand = batchCreateCommand;
+        this.createCommand = createCommand;
+        this.properties = properties;
+        this.batchSizes = DistributionSummary.builder("request.group-commit.batch-size").register(meterRegistry);
+        this.commitTimer = Timer.builder("request.group-commit.commit").register(meterRegistry);
+        Gauge.builder("request.group-commit.window", properties, props -> props.window().toNanos() / 1e9)
+                .baseUnit("seconds")
+                .register(meterRegistry);
+        Gauge.builder("request.group-commit.max-batch-size", properties, GroupCommitProperties::maxBatchSize)
+                .register(meterRegistry);
+
+        this.pipeline.set(startPipeline());
+    }
+
+    @Override
+    public Mono<ExecutionResult<RequestDto>> create(Context<RequestPayload> context) {
+        return Mono.defer(() -> {
+            Pipeline current = pipeline.get();
+            PendingRequest pending = new PendingRequest(context.request(), Sinks.one());
+            current.waiting().add(pending);
+            try {
+                current.requests().emitNext(pending, Sinks.EmitFailureHandler.busyLooping(EMIT_RETRY_DURATION));
+            } catch (Sinks.EmissionException error) {
+                current.waiting().remove(pending);
+                return Mono.error(new IllegalStateException("Group commit pipeline is not accepting requests", error));
+            }
+            return pending.result().asMono()
+                    .doFinally(signal -> current.waiting().remove(pending));
+        });
+    }
+
+    @PreDestroy
+    void shutdown() {
+        shutdown = true;
+        Pipeline current = pipeline.get();
+        current.commits().dispose();
+        failWaiting(current, new IllegalStateException("Group commit pipeline was shut down"));
+    }
+
+    private Pipeline startPipeline() {
+        Sinks.Many<PendingRequest> requests = Sinks.many().unicast().onBackpressureBuffer();
+        Set<PendingRequest> waiting = ConcurrentHashMap.newKeySet();
+        Disposable.Swap commits = Disposables.swap();
+        Pipeline started = new Pipeline(requests, waiting, commits);
+        commits.update(requests.asFlux()
+                .bufferTimeout(properties.maxBatchSize(), properties.window(), true)
+                .flatMap(this::commit, properties.maxConcurrentCommits())
+                .subscribe(
+                        ignored -> {
+                        },
+                        error -> restart(started, error),
+                        () -> restart(started, new IllegalStateException("Group commit pipeline completed"))));
+        return started;
+    }
+
+    private void restart(Pipeline terminated, Throwable cause) {
+        if (shutdown) {
+            return;
+        }
+        logger.error("Group commit pipeline terminated, failing its waiting requests and starting a new pipeline", cause);
+        if (pipeline.compareAndSet(terminated, startPipeline())) {
+            terminated.requests().tryEmitComplete();
+            failWaiting(terminated, new IllegalStateException("Group commit pipeline terminated", cause));
+        }
+    }
+
+    private static void failWaiting(Pipeline terminated, Throwable error) {
+        terminated.waiting().forEach(pending -> pending.result().tryEmitError(error));
+        terminated.waiting().clear();
+    }
+
+    private Mono<Void> commit(List<PendingRequest> group) {
+        batchSizes.record(group.size());
+        long startedAt = System.nanoTime();
+        List<RequestPayload> payloads = group.stream().map(PendingRequest::payload).toList();
+        return batchCreateCommand.execute(new Context<>(payloads))
+                .map(ExecutionResult::handle)
+                .doOnNext(results -> results.forEach(result -> complete(group.get(result.index()), result)))
+                .then()
+                .onErrorResume(error -> {
+                    logger.warn("Group commit of {} requests failed, storing them one by one", group.size(), error);
+                    return Flux.fromIterable(group)
+                            .flatMap(this::commitAlone)
+                            .then();
+                })
+                .doFinally(signal -> commitTimer.record(System.nanoTime() - startedAt, TimeUnit.NANOSECONDS));
+    }
+
+    private Mono<Void> commitAlone(PendingRequest pending) {
+        return createCommand.execute(new Context<>(pending.payload()))
+                .doOnNext(pending.result()::tryEmitValue)
+                .doOnError(pending.result()::tryEmitError)
+                .onErrorResume(error -> Mono.empty())
+                .then();
+    }
+
+    private static void complete(PendingRequest pending, BatchRequestResult result) {
+        if (result.isCreated()) {
+            pending.result().tryEmitValue(ExecutionResult.success(result.request()));
+        } else {
+            pending.result().tryEmitError(new ResourceNotFoundException(result.error(), ResourceType.MENU_ITEM));
+        }
+    }
+
+    private record PendingRequest(RequestPayload payload, Sinks.One<ExecutionResult<RequestDto>> result) {
+    }
+
+    private record Pipeline(Sinks.Many<PendingRequest> requests, Set<PendingRequest> waiting, Disposable.Swap commits) {
+    }
+}
@@ -0,0 +1,25 @@
+package pl.codehouse.restaurant.orders.request;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Configuration properties of the in-memory allocation of request identifiers.
+ *
+ * <p>The properties are loaded from the application's configuration
+ * file using the prefix "app.id-allocation".</p>
+ *
+ * @param blockSize The number of identifiers reserved from a sequence in a single round trip.
+ */
+@ConfigurationProperties("app.id-allocation")
+public record IdAllocationProperties(
+        int blockSize
+) {
+    /**
+     * Creates a new IdAllocationProperties instance.
+     */
+    public IdAllocationProperties {
+        if (blockSize <= 0) {
+            throw new IllegalArgumentException("Identifier block size must be greater than zero");
+        }
+    }
+}
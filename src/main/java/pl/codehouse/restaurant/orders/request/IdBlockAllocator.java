@@ -0,0 +1,96 @@
+package pl.codehouse.restaurant.orders.request;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BiFunction;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Hands out identifiers reserved from a database sequence in blocks.
+ *
+ * <p>Identifiers of the current block are taken with a single atomic increment, without locking.
+ * Only when the block is exhausted a new one is reserved, once for all concurrent callers.
+ * Identifiers of a block discarded by a restart are never reused, which leaves gaps in the
+ * sequence but never duplicates.</p>
+ */
+final class IdBlockAllocator {
+    private final IdSequence sequence;
+    private final int blockSize;
+    private final BiFunction<IdSequence, Integer, Flux<Integer>> reserve;
+    private final AtomicReference<Block> current = new AtomicReference<>(Block.EMPTY);
+    private final AtomicReference<Mono<Void>> pendingRefill = new AtomicReference<>();
+
+    /**
+     * Creates a new allocator.
+     *
+     * @param sequence  The sequence the identifiers are reserved from.
+     * @param blockSize The minimal number of identifiers reserved at once.
+     * @param reserve   The function reserving the given number of identifiers from the given sequence.
+     */
+    IdBlockAllocator(IdSequence sequence, int blockSize, BiFunction<IdSequence, Integer, Flux<Integer>> reserve) {
+        this.sequence = sequence;
+        this.blockSize = blockSize;
+        this.reserve = reserve;
+    }
+
+    /**
+     * Allocates the given number of unique identifiers.
+     *
+     * @param count The number of identifiers to allocate.
+     * @return A Mono emitting the allocated identifiers.
+     */
+    Mono<List<Integer>> allocate(int count) {
+        return Mono.defer(() -> fill(new ArrayList<>(count), count));
+    }
+
+    private Mono<List<Integer>> fill(List<Integer> ids, int count) {
+        Block block = current.get();
+        block.drainTo(ids, count - ids.size());
+        if (ids.size() == count) {
+            return Mono.just(ids);
+        }
+        return refill(block, count - ids.size())
+                .then(Mono.defer(() -> fill(ids, count)));
+    }
+
+    private Mono<Void> refill(Block exhausted, int missing) {
+        Mono<Void> load = reserve.apply(sequence, Math.max(blockSize, missing))
+                .collectList()
+                .doOnNext(ids -> current.compareAndSet(exhausted, new Block(ids.stream().mapToInt(Integer::intValue).toArray())))
+                .then()
+                .cache();
+        Mono<Void> pending = pendingRefill.compareAndExchange(null, load);
+        if (pending != null) {
+            return pending;
+        }
+        if (current.get() != exhausted) {
+            pendingRefill.compareAndSet(load, null);
+            return Mono.empty();
+        }
+        return load.doFinally(signal -> pendingRefill.compareAndSet(load, null));
+    }
+
+    private static final class Block {
+        private static final Block EMPTY = new Block(new int[0]);
+
+        private final int[] ids;
+        private final AtomicInteger cursor = new AtomicInteger();
+
+        private Block(int[] ids) {
+            this.ids = ids;
+        }
+
+        private void drainTo(List<Integer> target, int count) {
+            if (count <= 0 || cursor.get() >= ids.length) {
+                return;
+            }
+            int start = cursor.getAndAdd(count);
+            for (int i = start; i < Math.min(ids.length, start + count); i++) {
+                target.add(ids[i]);
+            }
+        }
+    }
+}
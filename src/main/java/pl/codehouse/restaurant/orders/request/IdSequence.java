@@ -0,0 +1,19 @@
+package pl.codehouse.restaurant.orders.request;
+
+/**
+ * Database sequences generating identifiers of requests and their menu items.
+ */
+enum IdSequence {
+    REQUEST("order_id_seq"),
+    REQUEST_MENU_ITEM("request_menu_item_id_seq");
+
+    private final String sequenceName;
+
+    IdSequence(String sequenceName) {
+        this.sequenceName = sequenceName;
+    }
+
+    String sequenceName() {
+        return sequenceName;
+    }
+}
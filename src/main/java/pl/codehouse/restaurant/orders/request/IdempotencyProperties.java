@@ -0,0 +1,32 @@
+package pl.codehouse.restaurant.orders.request;
+
+import java.time.Duration;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Configuration properties of the in-memory cache deduplicating retried request creations.
+ *
+ * <p>The properties are loaded from the application's configuration
+ * file using the prefix "app.idempotency".</p>
+ *
+ * @param maxSize   The maximum number of idempotency keys remembered in memory.
+ * @param expiresIn The time after which a remembered idempotency key is evicted from memory.
+ *                  Older retries are still deduplicated by the database.
+ */
+@ConfigurationProperties("app.idempotency")
+public record IdempotencyProperties(
+        long maxSize,
+        Duration expiresIn
+) {
+    /**
+     * Creates a new IdempotencyProperties instance.
+     */
+    public IdempotencyProperties {
+        if (maxSize <= 0) {
+            throw new IllegalArgumentException("Idempotency cache size must be greater than zero");
+        }
+        if (expiresIn == null || expiresIn.isNegative() || expiresIn.isZero()) {
+            throw new IllegalArgumentException("Idempotency cache expiration must be a positive duration");
+        }
+    }
+}
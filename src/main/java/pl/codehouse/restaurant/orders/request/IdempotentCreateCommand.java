@@ -0,0 +1,80 @@
+package pl.codehouse.restaurant.orders.request;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import java.util.concurrent.ConcurrentMap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+import pl.codehouse.commons.Command;
+import pl.codehouse.commons.Context;
+import pl.codehouse.commons.ExecutionResult;
+import reactor.core.publisher.Mono;
+
+/**
+ * Command creating a new request at most once per idempotency key.
+ *
+ * <p>Creations are remembered in a bounded, time-evicting in-memory cache, so a replay joins the creation
+ * still in progress or returns the originally created request without accessing the database.
+ * Replays not found in memory, e.g. after an eviction or handled by another instance, are rejected by the
+ * unique idempotency key constraint, in which case the originally created request is loaded instead.
+ * Payloads without an idempotency key are passed to the {@link RequestCreator} as they are.</p>
+ */
+@Component
+class IdempotentCreateCommand implements Command<RequestPayload, RequestDto> {
+    private static final Logger logger = LoggerFactory.getLogger(IdempotentCreateCommand.class);
+
+    private final RequestCreator requestCreator;
+    private final RequestRepository requestRepository;
+    private final RequestService requestService;
+    private final ConcurrentMap<String, Mono<RequestDto>> creations;
+
+    IdempotentCreateCommand(RequestCreator requestCreator,
+                            RequestRepository requestRepository,
+                            RequestService requestService,
+                            IdempotencyProperties idempotencyProperties) {
+        this.requestCreator = requestCreator;
+        this.requestRepository = requestRepository;
+        this.requestService = requestService;
+        Cache<String, Mono<RequestDto>> cache = Caffeine.newBuilder()
+                .maximumSize(idempotencyProperties.maxSize())
+                .expireAfterWrite(idempotencyProperties.expiresIn())
+                .build();
+        this.creations = cache.asMap();
+    }
+
+    @Override
+    public Mono<ExecutionResult<RequestDto>> execute(Context<RequestPayload> context) {
+        String idempotencyKey = context.request().idempotencyKey();
+        if (idempotencyKey == null || idempotencyKey.isBlank()) {
+            return requestCreator.create(context);
+        }
+
+        Mono<RequestDto> creation = Mono.defer(() -> create(context)).cache();
+        Mono<RequestDto> pending = creations.putIfAbsent(idempotencyKey, creation);
+        if (pending != null) {
+            logger.info("Replaying request creation for idempotency key: {}", idempotencyKey);
+            return awaitCreation(idempotencyKey, pending);
+        }
+        return awaitCreation(idempotencyKey, creation);
+    }
+
+    private Mono<ExecutionResult<RequestDto>> awaitCreation(String idempotencyKey, Mono<RequestDto> creation) {
+        return creation
+                .doOnError(error -> creations.remove(idempotencyKey, creation))
+                .map(ExecutionResult::success);
+    }
+
+    private Mono<RequestDto> create(Context<RequestPayload> context) {
+        String idempotencyKey = context.request().idempotencyKey();
+        return requestCreator.create(context)
+                .map(ExecutionResult::handle)
+                .onErrorResume(DataIntegrityViolationException.class, error -> {
+                    logger.info("Request with idempotency key: {} already exists, loading the original request", idempotencyKey);
+                    return requestRepository.findIdByIdempotencyKey(idempotencyKey)
+                            .flatMap(requestService::findById)
+                            .switchIfEmpty(Mono.error(error));
+                });
+    }
+}
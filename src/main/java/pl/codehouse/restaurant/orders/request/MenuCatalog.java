@@ -0,0 +1,113 @@
+package pl.codehouse.restaurant.orders.request;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+/**
+ * In-memory catalog of the restaurant menu.
+ * The content of the {@code menu_item} table is kept as an immutable {@link MenuSnapshot} that is
+ * refreshed periodically, after an explicit {@link #invalidate()}, or when a menu item missing from
+ * the current snapshot is requested. In the steady state menu lookups do not access the database.
+ * Reloads caused by unknown menu items are throttled to the configured minimal interval, so a stream
+ * of requests for menu items that do not exist cannot turn every lookup into a full reload of the menu.
+ */
+@Component
+class MenuCatalog {
+    private static final Logger logger = LoggerFactory.getLogger(MenuCatalog.class);
+
+    private final MenuItemRepository menuItemRepository;
+    private final long minReloadIntervalNanos;
+    private final AtomicReference<MenuSnapshot> snapshot = new AtomicReference<>(MenuSnapshot.EMPTY);
+    private final AtomicReference<Mono<MenuSnapshot>> pendingRefresh = new AtomicReference<>();
+    private final AtomicBoolean stale = new AtomicBoolean(true);
+    private volatile long loadedAt;
+
+    MenuCatalog(MenuItemRepository menuItemRepository, MenuCatalogProperties properties) {
+        this.menuItemRepository = menuItemRepository;
+        this.minReloadIntervalNanos = properties.minReloadInterval().toNanos();
+    }
+
+    /**
+     * Gets the current snapshot of the menu, loading it first if it was never loaded or got invalidated.
+     *
+     * @return A Mono emitting the current menu snapshot.
+     */
+    Mono<MenuSnapshot> snapshot() {
+        return Mono.defer(() -> stale.get() ? refresh() : Mono.just(snapshot.get()));
+    }
+
+    /**
+     * Gets a snapshot of the menu containing the given menu items.
+     * The menu is reloaded once if any of the menu items is missing from the current snapshot, unless it was
+     * loaded within the minimal reload interval, so callers should still verify the result with
+     * {@link MenuSnapshot#containsAll(Collection)}.
+     *
+     * @param menuItemIds The IDs of the required menu items.
+     * @return A Mono emitting the menu snapshot.
+     */
+    Mono<MenuSnapshot> resolve(Collection<Integer> menuItemIds) {
+        return snapshot()
+                .flatMap(current -> current.containsAll(menuItemIds) || loadedRecently() ? Mono.just(current) : refresh());
+    }
+
+    /**
+     * Marks the current snapshot as stale, so the menu is reloaded on the next access.
+     */
+    void invalidate() {
+        logger.info("Menu catalog invalidated at version: {}", snapshot.get().version());
+        stale.set(true);
+    }
+
+    /**
+     * Reloads the menu in the background on a fixed schedule.
+     *
+     * @return A Mono completing once the menu is reloaded.
+     */
+    @Scheduled(fixedDelayString = "${app.menu-catalog.refresh-interval}", initialDelayString = "${app.menu-catalog.refresh-interval}")
+    Mono<Void> scheduledRefresh() {
+        return refresh()
+                .onErrorResume(error -> {
+                    logger.error("Unable to refresh menu catalog. Keeping version: {}", snapshot.get().version(), error);
+                    return Mono.empty();
+                })
+                .then();
+    }
+
+    private boolean loadedRecently() {
+        return System.nanoTime() - loadedAt < minReloadIntervalNanos;
+    }
+
+    private Mono<MenuSnapshot> refresh() {
+        return Mono.defer(() -> {
+            Mono<MenuSnapshot> load = menuItemRepository.findAll()
+                    .collectList()
+                    .map(this::publish)
+                    .cache();
+            Mono<MenuSnapshot> pending = pendingRefresh.compareAndExchange(null, load);
+            if (pending != null) {
+                return pending;
+            }
+            return load.doFinally(signal -> pendingRefresh.compareAndSet(load, null));
+        });
+    }
+
+    private MenuSnapshot publish(List<MenuItemEntity> menuItems) {
+        loadedAt = System.nanoTime();
+        stale.set(false);
+        return snapshot.updateAndGet(current -> {
+            MenuSnapshot candidate = new MenuSnapshot(current.version() + 1, menuItems);
+            if (current.version() > 0 && current.menuItems().equals(candidate.menuItems())) {
+                return current;
+            }
+            logger.info("Menu catalog updated to version: {} with {} menu items", candidate.version(), menuItems.size());
+            return candidate;
+        });
+    }
+}
@@ -0,0 +1,32 @@
+package pl.codehouse.restaurant.orders.request;
+
+import java.time.Duration;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Configuration properties of the in-memory menu catalog.
+ *
+ * <p>The properties are loaded from the application's configuration
+ * file using the prefix "app.menu-catalog".</p>
+ *
+ * @param refreshInterval   The delay between two consecutive background reloads of the menu.
+ * @param minReloadInterval The minimal time between two reloads triggered by unknown menu items. Requests for unknown
+ *                          menu items arriving sooner are resolved against the current menu without reloading it.
+ */
+@ConfigurationProperties("app.menu-catalog")
+public record MenuCatalogProperties(
+        Duration refreshInterval,
+        Duration minReloadInterval
+) {
+    /**
+     * Creates a new MenuCatalogProperties instance.
+     */
+    public MenuCatalogProperties {
+        if (refreshInterval == null || refreshInterval.isNegative() || refreshInterval.isZero()) {
+            throw new IllegalArgumentException("Menu catalog refresh interval must be a positive duration");
+        }
+        if (minReloadInterval == null || minReloadInterval.isNegative()) {
+            throw new IllegalArgumentException("Menu catalog minimal reload interval must not be negative");
+        }
+    }
+}
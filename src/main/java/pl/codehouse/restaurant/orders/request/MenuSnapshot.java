@@ -0,0 +1,155 @@
+package pl.codehouse.restaurant.orders.request;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Immutable, versioned view of all menu items known to the restaurant.
+ * Menu items are indexed by their ID, so a lookup is a single array access for densely numbered menus,
+ * with a hash map fallback for menus whose IDs are spread too far apart.
+ */
+final class MenuSnapshot {
+    /**
+     * Snapshot used before the menu is loaded for the first time.
+     */
+    static final MenuSnapshot EMPTY = new MenuSnapshot(0, List.of());
+
+    private static final int MAX_DENSE_INDEX_OVERHEAD = 1024;
+
+    private final long version;
+    private final List<MenuItemEntity> menuItems;
+    private volatile String etag;
+    private final int firstId;
+    private final MenuItemEntity[] denseIndex;
+    private final Map<Integer, MenuItemEntity> sparseIndex;
+
+    /**
+     * Creates a new snapshot of the given menu items.
+     *
+     * @param version The version of the snapshot. Version 0 is reserved for a menu that was never loaded.
+     * @param menuItems The menu items included in the snapshot.
+     */
+    MenuSnapshot(long version, Collection<MenuItemEntity> menuItems) {
+        this.version = version;
+        this.menuItems = menuItems.stream()
+                .sorted(Comparator.comparingInt(MenuItemEntity::id))
+                .toList();
+
+        int minId = this.menuItems.isEmpty() ? 0 : this.menuItems.getFirst().id();
+        int maxId = this.menuItems.isEmpty() ? -1 : this.menuItems.getLast().id();
+        long range = (long) maxId - minId + 1;
+        if (range <= this.menuItems.size() + MAX_DENSE_INDEX_OVERHEAD) {
+            this.firstId = minId;
+            this.denseIndex = new MenuItemEntity[(int) range];
+            this.menuItems.forEach(menuItem -> denseIndex[menuItem.id() - minId] = menuItem);
+            this.sparseIndex = null;
+        } else {
+            this.firstId = 0;
+            this.denseIndex = null;
+            this.sparseIndex = new HashMap<>();
+            this.menuItems.forEach(menuItem -> sparseIndex.put(menuItem.id(), menuItem));
+        }
+    }
+
+    /**
+     * Creates an unversioned snapshot of the given menu items.
+     *
+     * @param menuItems The menu items included in the snapshot.
+     * @return A new MenuSnapshot instance.
+     */
+    static MenuSnapshot of(Collection<MenuItemEntity> menuItems) {
+        return new MenuSnapshot(0, menuItems);
+    }
+
+    /**
+     * Gets the version of this snapshot. The version changes only when the content of the menu changes.
+     *
+     * @return The version of the snapshot.
+     */
+    long version() {
+        return version;
+    }
+
+    /**
+     * Gets the entity tag of this snapshot. Unlike the version, which is local to the application instance,
+     * the tag is derived from the content of the menu, so every instance serving the same menu returns the same tag.
+     * The tag is a SHA-256 digest of all fields of all menu items, computed on first use.
+     *
+     * @return The entity tag of the snapshot.
+     */
+    String etag() {
+        String currentEtag = etag;
+        if (currentEtag == null) {
+            currentEtag = "menu-" + HexFormat.of().formatHex(digest(menuItems));
+            etag = currentEtag;
+        }
+        return currentEtag;
+    }
+
+    /**
+     * Gets all menu items of this snapshot, ordered by their ID.
+     *
+     * @return An immutable list of menu items.
+     */
+    List<MenuItemEntity> menuItems() {
+        return menuItems;
+    }
+
+    /**
+     * Finds a menu item by its ID.
+     *
+     * @param menuItemId The ID of the menu item.
+     * @return An Optional containing the menu item, or an empty Optional if the menu item is unknown.
+     */
+    Optional<MenuItemEntity> find(int menuItemId) {
+        if (denseIndex == null) {
+            return Optional.ofNullable(sparseIndex.get(menuItemId));
+        }
+        int index = menuItemId - firstId;
+        if (index < 0 || index >= denseIndex.length) {
+            return Optional.empty();
+        }
+        return Optional.ofNullable(denseIndex[index]);
+    }
+
+    /**
+     * Checks whether all given menu items are known.
+     *
+     * @param menuItemIds The IDs of the menu items to check.
+     * @return true if every menu item is part of this snapshot, false otherwise.
+     */
+    boolean containsAll(Collection<Integer> menuItemIds) {
+        return menuItemIds.stream().allMatch(menuItemId -> find(menuItemId).isPresent());
+    }
+
+    private static byte[] digest(List<MenuItemEntity> menuItems) {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not supported", e);
+        }
+        for (MenuItemEntity menuItem : menuItems) {
+            byte[] name = menuItem.name().getBytes(StandardCharsets.UTF_8);
+            digest.update(ByteBuffer.allocate(Integer.BYTES * 3 + Long.BYTES + 2 + name.length)
+                    .putInt(menuItem.id())
+                    .putInt(name.length)
+                    .put(name)
+                    .putLong(menuItem.price())
+                    .putInt(menuItem.volume())
+                    .put((byte) (menuItem.packing() ? 1 : 0))
+                    .put((byte) (menuItem.immediate() ? 1 : 0))
+                    .array());
+        }
+        return digest.digest();
+    }
+}
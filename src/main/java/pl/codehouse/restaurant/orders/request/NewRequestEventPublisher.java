@@ -0,0 +1,64 @@
+package pl.codehouse.restaurant.orders.request;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.util.List;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+import pl.codehouse.restaurant.orders.shelf.PackingStatus;
+import reactor.core.publisher.Mono;
+
+/**
+ * Emits the events that follow the creation of a new request:
+ * the shelf event that triggers packing and the initial request status change.
+ *
+ * <p>Events are not sent to Kafka directly. They are stored in the outbox as part of the transaction creating
+ * the requests, so they are delivered by the {@link OutboxRelay} only once the requests are committed.</p>
+ */
+@Component
+class NewRequestEventPublisher {
+    private static final Logger logger = LoggerFactory.getLogger(NewRequestEventPublisher.class);
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final ObjectMapper objectMapper;
+
+    NewRequestEventPublisher(OutboxEventRepository outboxEventRepository, ObjectMapper objectMapper) {
+        this.outboxEventRepository = outboxEventRepository;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Stores the new request events of all given requests in the outbox with a single statement.
+     *
+     * @param requests The newly created requests.
+     * @return A Mono completing once the events are stored.
+     */
+    Mono<Void> publish(List<RequestDto> requests) {
+        if (requests.isEmpty()) {
+            return Mono.empty();
+        }
+        String[] eventTypes = new String[requests.size() * 2];
+        Integer[] aggregateIds = new Integer[requests.size() * 2];
+        String[] payloads = new String[requests.size() * 2];
+        return Mono.fromCallable(() -> {
+                    for (int i = 0; i < requests.size(); i++) {
+                        RequestDto request = requests.get(i);
+                        eventTypes[2 * i] = OutboxEventType.SHELF_EVENT.name();
+                        aggregateIds[2 * i] = request.requestId();
+                        payloads[2 * i] = toJson(ShelfEventDto.newRequestEvent(request.requestId()));
+                        eventTypes[2 * i + 1] = OutboxEventType.REQUEST_STATUS_CHANGE.name();
+                        aggregateIds[2 * i + 1] = request.requestId();
+                        payloads[2 * i + 1] = toJson(new RequestStatusChangeMessage(request.requestId(), request.status(), PackingStatus.NOT_STARTED));
+                    }
+                    logger.info("Enqueue {} events for {} new requests", payloads.length, requests.size());
+                    return payloads;
+                })
+                .flatMap(serializedPayloads -> outboxEventRepository.insertAll(eventTypes, aggregateIds, serializedPayloads))
+                .then();
+    }
+
+    private String toJson(Object payload) throws JsonProcessingException {
+        return objectMapper.writeValueAsString(payload);
+    }
+}
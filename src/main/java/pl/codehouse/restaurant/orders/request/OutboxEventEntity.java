@@ -0,0 +1,14 @@
+package pl.codehouse.restaurant.orders.request;
+
+import java.time.LocalDateTime;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.relational.core.mapping.Table;
+
+@Table("outbox_event")
+record OutboxEventEntity(
+        @Id long id,
+        OutboxEventType eventType,
+        int aggregateId,
+        String payload,
+        LocalDateTime createdAt) {
+}
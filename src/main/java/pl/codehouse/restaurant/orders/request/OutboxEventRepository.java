@@ -0,0 +1,22 @@
+package pl.codehouse.restaurant.orders.request;
+
+import org.springframework.data.r2dbc.repository.Modifying;
+import org.springframework.data.r2dbc.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.data.repository.reactive.ReactiveCrudRepository;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+@Repository
+interface OutboxEventRepository extends ReactiveCrudRepository<OutboxEventEntity, Long> {
+
+    @Modifying
+    @Query("INSERT INTO outbox_event (event_type, aggregate_id, payload) SELECT * FROM UNNEST(:eventTypes, :aggregateIds, :payloads)")
+    Mono<Integer> insertAll(@Param("eventTypes") String[] eventTypes,
+                            @Param("aggregateIds") Integer[] aggregateIds,
+                            @Param("payloads") String[] payloads);
+
+    @Query("SELECT * FROM outbox_event ORDER BY id LIMIT :limit FOR UPDATE SKIP LOCKED")
+    Flux<OutboxEventEntity> lockNextBatch(@Param("limit") int limit);
+}
@@ -0,0 +1,19 @@
+package pl.codehouse.restaurant.orders.request;
+
+/**
+ * Types of events stored in the transactional outbox, each bound to the payload class it is serialized from.
+ */
+enum OutboxEventType {
+    SHELF_EVENT(ShelfEventDto.class),
+    REQUEST_STATUS_CHANGE(RequestStatusChangeMessage.class);
+
+    private final Class<?> payloadType;
+
+    OutboxEventType(Class<?> payloadType) {
+        this.payloadType = payloadType;
+    }
+
+    Class<?> payloadType() {
+        return payloadType;
+    }
+}
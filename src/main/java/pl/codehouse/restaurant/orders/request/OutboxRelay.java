@@ -0,0 +1,111 @@
+package pl.codehouse.restaurant.orders.request;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.KafkaHeaders;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import pl.codehouse.restaurant.orders.shelf.ShelfKafkaProperties;
+import reactor.core.publisher.Mono;
+
+/**
+ * Delivers the events stored in the outbox to Kafka.
+ *
+ * <p>Each drain locks a batch of the oldest events with {@code FOR UPDATE SKIP LOCKED}, so several instances
+ * of the service may relay concurrently, hands the whole batch to the producer before awaiting any
+ * acknowledgement, and deletes the events once all of them are acknowledged. Delivery is at-least-once:
+ * events of a batch that failed to be acknowledged are sent again with the next drain.</p>
+ */
+@Component
+class OutboxRelay {
+    private static final Logger logger = LoggerFactory.getLogger(OutboxRelay.class);
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final KafkaTemplate<String, Object> kafkaTemplate;
+    private final ObjectMapper objectMapper;
+    private final TransactionalOperator transactionalOperator;
+    private final ShelfKafkaProperties shelfKafkaProperties;
+    private final RequestStatusChangeKafkaProperties requestStatusChangeKafkaProperties;
+    private final OutboxRelayProperties relayProperties;
+
+    OutboxRelay(OutboxEventRepository outboxEventRepository,
+                KafkaTemplate<String, Object> kafkaTemplate,
+                ObjectMapper objectMapper,
+                TransactionalOperator transactionalOperator,
+                ShelfKafkaProperties shelfKafkaProperties,
+                RequestStatusChangeKafkaProperties requestStatusChangeKafkaProperties,
+                OutboxRelayProperties relayProperties) {
+        this.outboxEventRepository = outboxEventRepository;
+        this.kafkaTemplate = kafkaTemplate;
+        this.objectMapper = objectMapper;
+        this.transactionalOperator = transactionalOperator;
+        this.shelfKafkaProperties = shelfKafkaProperties;
+        this.requestStatusChangeKafkaProperties = requestStatusChangeKafkaProperties;
+        this.relayProperties = relayProperties;
+    }
+
+    /**
+     * Drains the outbox batch by batch until fewer events than the batch size are left.
+     *
+     * @return A Mono completing once the outbox is drained.
+     */
+    @Scheduled(fixedDelayString = "${app.outbox.relay.interval}")
+    Mono<Void> relay() {
+        return relayBatch()
+                .expand(relayed -> relayed < relayProperties.batchSize() ? Mono.empty() : relayBatch())
+                .then()
+                .onErrorResume(error -> {
+                    logger.error("Unable to relay outbox events, retrying with the next drain", error);
+                    return Mono.empty();
+                });
+    }
+
+    private Mono<Integer> relayBatch() {
+        return outboxEventRepository.lockNextBatch(relayProperties.batchSize())
+                .collectList()
+                .flatMap(events -> events.isEmpty()
+                        ? Mono.just(0)
+                        : send(events)
+                                .then(Mono.defer(() -> outboxEventRepository.deleteAllById(events.stream().map(OutboxEventEntity::id).toList())))
+                                .thenReturn(events.size()))
+                .as(transactionalOperator::transactional);
+    }
+
+    private Mono<Void> send(List<OutboxEventEntity> events) {
+        CompletableFuture<?>[] acknowledgements = events.stream()
+                .map(this::toMessage)
+                .filter(Objects::nonNull)
+                .map(kafkaTemplate::send)
+                .toArray(CompletableFuture[]::new);
+        logger.info("Relaying {} outbox events", acknowledgements.length);
+        return Mono.fromFuture(CompletableFuture.allOf(acknowledgements));
+    }
+
+    private Message<Object> toMessage(OutboxEventEntity event) {
+        try {
+            Object payload = objectMapper.readValue(event.payload(), event.eventType().payloadType());
+            return MessageBuilder.withPayload(payload)
+                    .setHeader(KafkaHeaders.TOPIC, topicOf(event.eventType()))
+                    .build();
+        } catch (JsonProcessingException e) {
+            logger.error("Dropping unreadable outbox event: {} of type: {}", event.id(), event.eventType(), e);
+            return null;
+        }
+    }
+
+    private String topicOf(OutboxEventType eventType) {
+        return switch (eventType) {
+            case SHELF_EVENT -> shelfKafkaProperties.topicName();
+            case REQUEST_STATUS_CHANGE -> requestStatusChangeKafkaProperties.topicName();
+        };
+    }
+}
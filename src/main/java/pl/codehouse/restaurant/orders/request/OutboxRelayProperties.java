@@ -0,0 +1,28 @@
+package pl.codehouse.restaurant.orders.request;
+
+import java.time.Duration;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Configuration properties of the relay delivering outbox events to Kafka.
+ *
+ * <p>The properties are loaded from the application's configuration
+ * file using the prefix "app.outbox.relay".</p>
+ *
+ * @param batchSize The maximum number of outbox events locked and sent to Kafka in a single transaction.
+ * @param interval  The delay between two consecutive drains of the outbox.
+ */
+@ConfigurationProperties("app.outbox.relay")
+public record OutboxRelayProperties(
+        int batchSize,
+        Duration interval
+) {
+    /**
+     * Creates a new OutboxRelayProperties instance.
+     */
+    public OutboxRelayProperties {
+        if (batchSize <= 0) {
+            throw new IllegalArgumentException("Outbox relay batch size must be greater than zero");
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package pl.codehouse.restaurant.orders.request;
+
+/**
+ * Represents the outcome of increasing the prepared count of a request menu item.
+ *
+ * @param menuItem The request menu item after the update.
+ * @param overflow The part of the requested increase that was not applied because it exceeded the ordered quantity.
+ */
+record PreparedItemUpdate(
+        RequestMenuItemEntity menuItem,
+        int overflow
+) {
+
+    /**
+     * Checks whether more items were reported as prepared than were still missing.
+     *
+     * @return true if part of the increase was not applied, false otherwise.
+     */
+    boolean overflowed() {
+        return overflow > 0;
+    }
+}
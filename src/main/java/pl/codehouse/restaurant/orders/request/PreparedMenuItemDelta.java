@@ -0,0 +1,13 @@
+package pl.codehouse.restaurant.orders.request;
+
+/**
+ * Represents the number of additionally prepared items of a single menu item within a request.
+ *
+ * @param menuItemId The ID of the menu item.
+ * @param preparedQuantity The number of additionally prepared items.
+ */
+public record PreparedMenuItemDelta(
+        int menuItemId,
+        int preparedQuantity
+) {
+}
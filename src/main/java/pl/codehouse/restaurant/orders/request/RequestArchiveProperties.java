@@ -0,0 +1,33 @@
+package pl.codehouse.restaurant.orders.request;
+
+import java.time.Duration;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Configuration properties of the archiver moving finished requests to the archive tables.
+ *
+ * <p>The properties are loaded from the application's configuration
+ * file using the prefix "app.request-archive".</p>
+ *
+ * @param age       The minimal age of a finished request before it is archived.
+ * @param batchSize The maximum number of requests moved in a single transaction.
+ * @param interval  The delay between two consecutive archiving runs.
+ */
+@ConfigurationProperties("app.request-archive")
+public record RequestArchiveProperties(
+        Duration age,
+        int batchSize,
+        Duration interval
+) {
+    /**
+     * Creates a new RequestArchiveProperties instance.
+     */
+    public RequestArchiveProperties {
+        if (age == null || age.isNegative()) {
+            throw new IllegalArgumentException("Request archive age must not be negative");
+        }
+        if (batchSize <= 0) {
+            throw new IllegalArgumentException("Request archive batch size must be greater than zero");
+        }
+    }
+}
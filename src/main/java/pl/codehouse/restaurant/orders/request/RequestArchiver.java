@@ -0,0 +1,60 @@
+package pl.codehouse.restaurant.orders.request;
+
+import java.util.List;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+/**
+ * Moves finished requests, together with their menu items, from the hot request tables to the archive tables.
+ *
+ * <p>Each run archives batch by batch until fewer requests than the batch size are left. Every batch is moved
+ * with a single statement, so it is a transaction of its own, and locks its requests with {@code SKIP LOCKED},
+ * so several instances of the service may archive concurrently. The idempotency keys of archived requests are
+ * dropped with them.</p>
+ *
+ * <p>Archived requests stay readable by their ID, by the multi-get by IDs and in the request pages, but are no
+ * longer part of the active requests. Only {@link RequestStatus#COLLECTED} requests are archived, which are the
+ * requests recorded as collected by {@link CollectCommand}.</p>
+ */
+@Component
+class RequestArchiver {
+    private static final Logger logger = LoggerFactory.getLogger(RequestArchiver.class);
+    private static final List<RequestStatus> TERMINAL_STATUSES = List.of(RequestStatus.COLLECTED);
+
+    private final RequestBatchRepository requestBatchRepository;
+    private final RequestArchiveProperties properties;
+
+    RequestArchiver(RequestBatchRepository requestBatchRepository, RequestArchiveProperties properties) {
+        this.requestBatchRepository = requestBatchRepository;
+        this.properties = properties;
+    }
+
+    /**
+     * Archives all finished requests older than the configured age.
+     *
+     * @return A Mono completing once no more requests are due for archiving.
+     */
+    @Scheduled(fixedDelayString = "${app.request-archive.interval}")
+    Mono<Void> archive() {
+        return archiveBatch()
+                .expand(archived -> archived < properties.batchSize() ? Mono.empty() : archiveBatch())
+                .reduce(0L, Long::sum)
+                .doOnNext(archived -> {
+                    if (archived > 0) {
+                        logger.info("Archived {} finished requests", archived);
+                    }
+                })
+                .then()
+                .onErrorResume(error -> {
+                    logger.error("Unable to archive finished requests, retrying with the next run", error);
+                    return Mono.empty();
+                });
+    }
+
+    private Mono<Long> archiveBatch() {
+        return requestBatchRepository.archiveRequests(TERMINAL_STATUSES, properties.age(), properties.batchSize());
+    }
+}
@@ -0,0 +1,413 @@
+package pl.codehouse.restaurant.orders.request;
+
+import io.r2dbc.spi.Readable;
+import java.time.Duration;
+import java.util.List;
+import java.util.Objects;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Repository for set-based writes of requests and their menu items.
+ * Every method issues a single statement regardless of the number of rows involved,
+ * binding the column values as arrays and expanding them with {@code UNNEST}.
+ * Statements changing a single request take its creation time from {@code request_partition_key},
+ * so they only touch the partitions of the day the request was created.
+ */
+@Repository
+class RequestBatchRepository {
+    private static final String RESERVE_IDS_QUERY = "SELECT NEXTVAL('%s') AS id FROM generate_series(1, :count)";
+
+    private static final String INSERT_REQUESTS_QUERY = """
+            WITH new_requests AS (
+                INSERT INTO request (id, customer_id, status)
+                SELECT * FROM UNNEST(:ids, :customerIds, :statuses)
+                RETURNING id
+            ), new_keys AS (
+                INSERT INTO request_idempotency_key (idempotency_key, request_id)
+                SELECT k.idempotency_key, k.request_id
+                FROM UNNEST(:idempotencyKeys, :ids) AS k(idempotency_key, request_id)
+                WHERE k.idempotency_key IS NOT NULL
+            )
+            SELECT COUNT(*) AS inserted FROM new_requests
+            """;
+
+    private static final String INSERT_REQUEST_MENU_ITEMS_QUERY = """
+            INSERT INTO request_menu_item (id, request_id, menu_item_id, quantity, prepared, immediate)
+            SELECT * FROM UNNEST(:ids, :requestIds, :menuItemIds, :quantities, :prepared, :immediate)
+            RETURNING id, request_id, menu_item_id, quantity, prepared, immediate
+            """;
+
+    private static final String INSERT_REQUEST_WITH_MENU_ITEMS_QUERY = """
+            WITH requested AS (
+                SELECT * FROM UNNEST(:menuItemIds, :quantities) AS r(menu_item_id, quantity)
+            ), selected AS (
+                SELECT r.menu_item_id, r.quantity, m.name, m.price, m.volume, m.packing, m.immediate
+                FROM requested r
+                JOIN menu_item m ON m.id = r.menu_item_id
+            ), new_request AS (
+                INSERT INTO request (customer_id, status)
+                SELECT :customerId, :status
+                WHERE (SELECT COUNT(DISTINCT menu_item_id) FROM selected) = :requestedCount
+                RETURNING id, customer_id, status
+            ), new_key AS (
+                INSERT INTO request_idempotency_key (idempotency_key, request_id)
+                SELECT :idempotencyKey, nr.id
+                FROM new_request nr
+                WHERE :idempotencyKey IS NOT NULL
+            ), new_menu_items AS (
+                INSERT INTO request_menu_item (request_id, menu_item_id, quantity, prepared, immediate)
+                SELECT nr.id, s.menu_item_id, s.quantity, 0, s.immediate
+                FROM new_request nr
+                CROSS JOIN selected s
+                RETURNING id, request_id, menu_item_id, quantity, prepared, immediate
+            )
+            SELECT nr.id AS request_id, nr.customer_id, nr.status,
+                   i.id, i.menu_item_id, i.quantity, i.prepared, i.immediate,
+                   s.name, s.price, s.volume, s.packing
+            FROM new_request nr
+            LEFT JOIN new_menu_items i ON i.request_id = nr.id
+            LEFT JOIN selected s ON s.menu_item_id = i.menu_item_id
+            """;
+
+    private static final String REQUEST_CREATED_AT = "(SELECT created_at FROM request_partition_key WHERE id = :requestId)";
+    private static final String REQUEST_CREATED_ON = "(SELECT date_trunc('day', created_at) FROM request_partition_key WHERE id = :requestId)";
+
+    private static final String INCREMENT_PREPARED_QUERY = """
+            WITH deltas AS (
+                SELECT * FROM UNNEST(:menuItemIds, :quantities) AS d(menu_item_id, quantity)
+            ), locked AS (
+                SELECT i.id, i.created_at, i.prepared, d.quantity
+                FROM request_menu_item i
+                JOIN deltas d ON d.menu_item_id = i.menu_item_id
+                WHERE i.request_id = :requestId
+                  AND i.created_at >= %1$s AND i.created_at < %1$s + INTERVAL '1 day'
+                ORDER BY i.id
+                FOR UPDATE OF i
+            )
+            UPDATE request_menu_item i
+            SET prepared = LEAST(i.quantity, i.prepared + l.quantity)
+            FROM locked l
+            WHERE i.id = l.id AND i.created_at = l.created_at
+              AND i.created_at >= %1$s AND i.created_at < %1$s + INTERVAL '1 day'
+            RETURNING i.id, i.request_id, i.menu_item_id, i.quantity, i.prepared, i.immediate,
+                      l.prepared + l.quantity - i.prepared AS overflow
+            """.formatted(REQUEST_CREATED_ON);
+
+    private static final String TRANSITION_STATUS_FROM_COUNTERS_QUERY = """
+            WITH current_request AS (
+                SELECT id, created_at, status,
+                       CASE WHEN prepared_count >= total_count THEN 'READY_TO_COLLECT' ELSE 'IN_PROGRESS' END AS derived_status
+                FROM request
+                WHERE id = :requestId AND created_at = %1$s
+            ), transitioned AS (
+                UPDATE request r
+                SET status = c.derived_status,
+                    version = r.version + 1
+                FROM current_request c
+                WHERE r.id = c.id AND r.created_at = c.created_at AND r.created_at = %1$s
+                  AND (c.status, c.derived_status) IN (SELECT * FROM UNNEST(:fromStatuses, :toStatuses))
+                RETURNING r.status
+            )
+            SELECT c.status AS previous_status, COALESCE(t.status, c.status) AS status
+            FROM current_request c
+            LEFT JOIN transitioned t ON TRUE
+            """.formatted(REQUEST_CREATED_AT);
+
+    private static final String TRANSITION_STATUS_QUERY = """
+            WITH current_request AS (
+                SELECT id, created_at, status
+                FROM request
+                WHERE id = :requestId AND created_at = %1$s
+            ), transitioned AS (
+                UPDATE request r
+                SET status = :toStatus,
+                    version = r.version + 1
+                FROM current_request c
+                WHERE r.id = c.id AND r.created_at = c.created_at AND r.created_at = %1$s
+                  AND c.status = :fromStatus
+                RETURNING r.status
+            )
+            SELECT c.status AS previous_status, COALESCE(t.status, c.status) AS status
+            FROM current_request c
+            LEFT JOIN transitioned t ON TRUE
+            """.formatted(REQUEST_CREATED_AT);
+
+    private static final String ARCHIVE_REQUESTS_QUERY = """
+            WITH moved_requests AS (
+                DELETE FROM request
+                WHERE (id, created_at) IN (
+                    SELECT id, created_at FROM request
+                    WHERE status = ANY(:statuses)
+                      AND created_at < LOCALTIMESTAMP - make_interval(secs => :ageSeconds)
+                    ORDER BY created_at
+                    LIMIT :batchSize
+                    FOR UPDATE SKIP LOCKED)
+                RETURNING id, customer_id, status, version, prepared_count, total_count, created_at
+            ), archived_requests AS (
+                INSERT INTO request_archive (id, customer_id, status, version, prepared_count, total_count, created_at)
+                SELECT * FROM moved_requests
+            ), moved_menu_items AS (
+                DELETE FROM request_menu_item i
+                USING moved_requests r
+                WHERE i.request_id = r.id
+                RETURNING i.id, i.request_id, i.menu_item_id, i.quantity, i.prepared, i.immediate, i.created_at
+            ), archived_menu_items AS (
+                INSERT INTO request_menu_item_archive (id, request_id, menu_item_id, quantity, prepared, immediate, created_at)
+                SELECT * FROM moved_menu_items
+            ), expired_idempotency_keys AS (
+                DELETE FROM request_idempotency_key k
+                USING moved_requests r
+                WHERE k.request_id = r.id
+            )
+            SELECT COUNT(*) AS archived FROM moved_requests
+            """;
+
+    private final DatabaseClient databaseClient;
+
+    RequestBatchRepository(DatabaseClient databaseClient) {
+        this.databaseClient = databaseClient;
+    }
+
+    /**
+     * Reserves the given number of identifiers from the given sequence in one round trip.
+     *
+     * @param sequence The sequence to reserve the identifiers from.
+     * @param count The number of identifiers to reserve.
+     * @return A Flux emitting the reserved identifiers.
+     */
+    Flux<Integer> reserveIds(IdSequence sequence, int count) {
+        return databaseClient.sql(RESERVE_IDS_QUERY.formatted(sequence.sequenceName()))
+                .bind("count", count)
+                .map(row -> row.get("id", Long.class))
+                .all()
+                .map(Long::intValue);
+    }
+
+    /**
+     * Inserts all given requests with a single multi-row statement.
+     * The entities are expected to carry their identifiers already.
+     * Idempotency keys are stored in the same statement.
+     * Storing a request with an already used idempotency key fails the whole statement with a {@code DataIntegrityViolationException}.
+     *
+     * @param requests The requests to insert.
+     * @param idempotencyKeys The idempotency keys of the requests, in the same order, with null for requests without a key.
+     * @return A Mono emitting the number of inserted rows.
+     */
+    Mono<Long> insertRequests(List<RequestEntity> requests, List<String> idempotencyKeys) {
+        Integer[] ids = requests.stream().map(RequestEntity::id).toArray(Integer[]::new);
+        Integer[] customerIds = requests.stream().map(RequestEntity::customerId).toArray(Integer[]::new);
+        String[] statuses = requests.stream().map(request -> request.status().name()).toArray(String[]::new);
+
+        return databaseClient.sql(INSERT_REQUESTS_QUERY)
+                .bind("ids", ids)
+                .bind("customerIds", customerIds)
+                .bind("statuses", statuses)
+                .bind("idempotencyKeys", idempotencyKeys.toArray(String[]::new))
+                .map(row -> row.get("inserted", Long.class))
+                .one();
+    }
+
+    /**
+     * Inserts all given request menu items with a single multi-row statement.
+     * The entities are expected to carry their identifiers already.
+     *
+     * @param menuItems The request menu items to insert.
+     * @return A Flux emitting the stored request menu items, including their generated identifiers.
+     */
+    Flux<RequestMenuItemEntity> insertMenuItems(List<RequestMenuItemEntity> menuItems) {
+        Integer[] ids = menuItems.stream().map(RequestMenuItemEntity::id).toArray(Integer[]::new);
+        Integer[] requestIds = menuItems.stream().map(RequestMenuItemEntity::requestId).toArray(Integer[]::new);
+        Integer[] menuItemIds = menuItems.stream().map(RequestMenuItemEntity::menuItemId).toArray(Integer[]::new);
+        Integer[] quantities = menuItems.stream().map(RequestMenuItemEntity::quantity).toArray(Integer[]::new);
+        Integer[] prepared = menuItems.stream().map(RequestMenuItemEntity::prepared).toArray(Integer[]::new);
+        Boolean[] immediate = menuItems.stream().map(RequestMenuItemEntity::immediate).toArray(Boolean[]::new);
+
+        return databaseClient.sql(INSERT_REQUEST_MENU_ITEMS_QUERY)
+                .bind("ids", ids)
+                .bind("requestIds", requestIds)
+                .bind("menuItemIds", menuItemIds)
+                .bind("quantities", quantities)
+                .bind("prepared", prepared)
+                .bind("immediate", immediate)
+                .map(RequestBatchRepository::toRequestMenuItemEntity)
+                .all();
+    }
+
+    /**
+     * Validates the requested menu items and stores a new request together with all of its menu items
+     * using a single statement built of data-modifying common table expressions.
+     * The request is stored only when every requested menu item exists and no menu item is requested twice.
+     * Storing a second request with an already used idempotency key fails with a {@code DataIntegrityViolationException}.
+     *
+     * @param customerId The ID of the customer making the request.
+     * @param menuItems The requested menu items.
+     * @param idempotencyKey The key deduplicating retries of the same request, or null if not provided.
+     * @return A Mono emitting the stored request, or an empty Mono when any of the requested menu items is unknown.
+     */
+    Mono<RequestDto> insertRequestWithMenuItems(int customerId, List<RequestedMenuItemsPayload> menuItems, String idempotencyKey) {
+        Integer[] menuItemIds = menuItems.stream().map(RequestedMenuItemsPayload::menuId).toArray(Integer[]::new);
+        Integer[] quantities = menuItems.stream().map(RequestedMenuItemsPayload::quantity).toArray(Integer[]::new);
+
+        DatabaseClient.GenericExecuteSpec statement = databaseClient.sql(INSERT_REQUEST_WITH_MENU_ITEMS_QUERY)
+                .bind("menuItemIds", menuItemIds)
+                .bind("quantities", quantities)
+                .bind("customerId", customerId)
+                .bind("status", RequestStatus.NEW.name())
+                .bind("requestedCount", menuItems.size());
+        statement = idempotencyKey == null
+                ? statement.bindNull("idempotencyKey", String.class)
+                : statement.bind("idempotencyKey", idempotencyKey);
+        return statement
+                .map(InsertedRequestRow::from)
+                .all()
+                .collectList()
+                .filter(rows -> !rows.isEmpty())
+                .map(RequestBatchRepository::toRequestDto);
+    }
+
+    /**
+     * Increases the prepared count of a request menu item with a single statement, never above the ordered quantity.
+     *
+     * @param requestId The ID of the request.
+     * @param menuItemId The ID of the menu item within the request.
+     * @param quantity The number of additionally prepared items.
+     * @return A Mono emitting the outcome of the update, or an empty Mono if the request has no such menu item.
+     * @see #incrementPrepared(int, List)
+     */
+    Mono<PreparedItemUpdate> incrementPrepared(int requestId, int menuItemId, int quantity) {
+        return incrementPrepared(requestId, List.of(new PreparedMenuItemDelta(menuItemId, quantity))).next();
+    }
+
+    /**
+     * Increases the prepared counts of several menu items of a request with a single statement,
+     * never above the ordered quantities.
+     * The rows are locked in the order of their IDs before they are read, so concurrent increases of the same menu items
+     * are applied one after another, none of them is lost and concurrent batches cannot deadlock.
+     *
+     * @param requestId The ID of the request.
+     * @param deltas The numbers of additionally prepared items, at most one per menu item.
+     * @return A Flux emitting the outcome of the update of every menu item of the request found among the deltas.
+     */
+    Flux<PreparedItemUpdate> incrementPrepared(int requestId, List<PreparedMenuItemDelta> deltas) {
+        return databaseClient.sql(INCREMENT_PREPARED_QUERY)
+                .bind("requestId", requestId)
+                .bind("menuItemIds", deltas.stream().map(PreparedMenuItemDelta::menuItemId).toArray(Integer[]::new))
+                .bind("quantities", deltas.stream().map(PreparedMenuItemDelta::preparedQuantity).toArray(Integer[]::new))
+                .map(row -> new PreparedItemUpdate(toRequestMenuItemEntity(row), row.get("overflow", Integer.class)))
+                .all();
+    }
+
+    /**
+     * Moves a request to the status derived from its prepared and total item counters with a single statement.
+     * The status is only written if the request lifecycle allows the transition, so a request whose status stays the same,
+     * or would move backwards, is left untouched.
+     *
+     * @param requestId The ID of the request.
+     * @return A Mono emitting the status of the request before and after the update, or an empty Mono if the request does not exist.
+     * @see RequestStatus#nextStatuses()
+     */
+    Mono<RequestStatusTransition> transitionStatusFromCounters(int requestId) {
+        List<RequestStatus[]> transitions = RequestStatus.transitions();
+        return databaseClient.sql(TRANSITION_STATUS_FROM_COUNTERS_QUERY)
+                .bind("requestId", requestId)
+                .bind("fromStatuses", transitions.stream().map(transition -> transition[0].name()).toArray(String[]::new))
+                .bind("toStatuses", transitions.stream().map(transition -> transition[1].name()).toArray(String[]::new))
+                .map(row -> new RequestStatusTransition(
+                        requestId,
+                        RequestStatus.valueOf(row.get("previous_status", String.class)),
+                        RequestStatus.valueOf(row.get("status", String.class))))
+                .one();
+    }
+
+    /**
+     * Moves a request from the given status to the next one with a single statement.
+     * A request in any other status is left untouched.
+     *
+     * @param requestId The ID of the request.
+     * @param from The status the request is expected to be in.
+     * @param to The status to move the request to.
+     * @return A Mono emitting the status of the request before and after the update, or an empty Mono if the request does not exist.
+     */
+    Mono<RequestStatusTransition> transitionStatus(int requestId, RequestStatus from, RequestStatus to) {
+        return databaseClient.sql(TRANSITION_STATUS_QUERY)
+                .bind("requestId", requestId)
+                .bind("fromStatus", from.name())
+                .bind("toStatus", to.name())
+                .map(row -> new RequestStatusTransition(
+                        requestId,
+                        RequestStatus.valueOf(row.get("previous_status", String.class)),
+                        RequestStatus.valueOf(row.get("status", String.class))))
+                .one();
+    }
+
+    /**
+     * Moves the oldest requests in the given statuses, together with their menu items, to the archive tables
+     * with a single statement. The idempotency keys of the moved requests are deleted, as retries of creations
+     * that old are no longer expected. Requests locked by concurrent transactions are skipped.
+     *
+     * @param statuses The statuses of the requests to archive.
+     * @param age The minimal age of an archived request.
+     * @param batchSize The maximum number of requests to archive.
+     * @return A Mono emitting the number of archived requests.
+     */
+    Mono<Long> archiveRequests(List<RequestStatus> statuses, Duration age, int batchSize) {
+        return databaseClient.sql(ARCHIVE_REQUESTS_QUERY)
+                .bind("statuses", statuses.stream().map(Enum::name).toArray(String[]::new))
+                .bind("ageSeconds", age.toSeconds())
+                .bind("batchSize", batchSize)
+                .map(row -> row.get("archived", Long.class))
+                .one();
+    }
+
+    private static RequestDto toRequestDto(List<InsertedRequestRow> rows) {
+        List<InsertedRequestRow> menuItemRows = rows.stream()
+                .filter(row -> Objects.nonNull(row.requestMenuItem()))
+                .toList();
+        return RequestDto.from(
+                rows.getFirst().request(),
+                menuItemRows.stream().map(InsertedRequestRow::requestMenuItem).toList(),
+                menuItemRows.stream().map(InsertedRequestRow::menuItem).toList()
+        );
+    }
+
+    private static RequestMenuItemEntity toRequestMenuItemEntity(Readable row) {
+        return new RequestMenuItemEntity(
+                row.get("id", Integer.class),
+                row.get("request_id", Integer.class),
+                row.get("menu_item_id", Integer.class),
+                row.get("quantity", Integer.class),
+                row.get("prepared", Integer.class),
+                row.get("immediate", Boolean.class)
+        );
+    }
+
+    /**
+     * Single row returned by the request creation statement.
+     * The menu item columns are empty when a request without menu items was stored.
+     */
+    private record InsertedRequestRow(RequestEntity request, RequestMenuItemEntity requestMenuItem, MenuItemEntity menuItem) {
+
+        static InsertedRequestRow from(Readable row) {
+            RequestEntity request = new RequestEntity(
+                    row.get("request_id", Integer.class),
+                    row.get("customer_id", Integer.class),
+                    RequestStatus.valueOf(row.get("status", String.class))
+            );
+            if (row.get("id", Integer.class) == null) {
+                return new InsertedRequestRow(request, null, null);
+            }
+            MenuItemEntity menuItem = new MenuItemEntity(
+                    row.get("menu_item_id", Integer.class),
+                    row.get("name", String.class),
+                    row.get("price", Integer.class),
+                    row.get("volume", Integer.class),
+                    row.get("packing", Boolean.class),
+                    row.get("immediate", Boolean.class)
+            );
+            return new InsertedRequestRow(request, toRequestMenuItemEntity(row), menuItem);
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package pl.codehouse.restaurant.orders.request;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import java.util.function.IntFunction;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+/**
+ * Read-through cache of assembled requests together with their versions, keyed by request ID.
+ *
+ * <p>Entries are bounded in size and expire after the configured time. Components changing a request
+ * invalidate its entry, so the next read assembles it again from the database. A load that is still
+ * in flight when its entry gets invalidated is dropped from the cache, so it never overwrites newer data.
+ * Hits and misses are exposed as {@code cache.gets} meters tagged with {@code cache=requests}.</p>
+ */
+@Component
+class RequestCache {
+    private static final Logger logger = LoggerFactory.getLogger(RequestCache.class);
+    private static final String CACHE_NAME = "requests";
+
+    private final AsyncCache<Integer, VersionedRequest> requests;
+
+    RequestCache(RequestCacheProperties properties, MeterRegistry meterRegistry) {
+        this.requests = Caffeine.newBuilder()
+                .maximumSize(properties.maxSize())
+                .expireAfterWrite(properties.expiresIn())
+                .recordStats()
+                .buildAsync();
+        CaffeineCacheMetrics.monitor(meterRegistry, requests, CACHE_NAME);
+    }
+
+    /**
+     * Gets a request from the cache, loading it with the given loader on a miss.
+     * Concurrent misses of the same request share a single load. Empty and failed loads are not cached.
+     *
+     * @param requestId The ID of the request.
+     * @param loader    The function loading the request and its version from the database.
+     * @return A Mono emitting the versioned request, or empty if the loader found none.
+     */
+    Mono<VersionedRequest> get(int requestId, IntFunction<Mono<VersionedRequest>> loader) {
+        return Mono.fromFuture(() -> requests.get(requestId, (id, executor) -> loader.apply(id).toFuture()), true);
+    }
+
+    /**
+     * Removes a request from the cache, so it is loaded again on the next read.
+     *
+     * @param requestId The ID of the changed request.
+     */
+    void invalidate(int requestId) {
+        logger.debug("Request cache invalidated for request: {}", requestId);
+        requests.synchronous().invalidate(requestId);
+    }
+}
@@ -0,0 +1,31 @@
+package pl.codehouse.restaurant.orders.request;
+
+import java.time.Duration;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Configuration properties of the in-memory cache of assembled requests.
+ *
+ * <p>The properties are loaded from the application's configuration
+ * file using the prefix "app.request-cache".</p>
+ *
+ * @param maxSize   The maximum number of requests kept in memory.
+ * @param expiresIn The time after which a cached request is evicted, even if it was not invalidated.
+ */
+@ConfigurationProperties("app.request-cache")
+public record RequestCacheProperties(
+        long maxSize,
+        Duration expiresIn
+) {
+    /**
+     * Creates a new RequestCacheProperties instance.
+     */
+    public RequestCacheProperties {
+        if (maxSize <= 0) {
+            throw new IllegalArgumentException("Request cache size must be greater than zero");
+        }
+        if (expiresIn == null || expiresIn.isNegative() || expiresIn.isZero()) {
+            throw new IllegalArgumentException("Request cache expiration must be a positive duration");
+        }
+    }
+}
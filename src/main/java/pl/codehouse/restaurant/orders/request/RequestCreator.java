@@ -0,0 +1,18 @@
+package pl.codehouse.restaurant.orders.request;
+
+import pl.codehouse.commons.Context;
+import pl.codehouse.commons.ExecutionResult;
+import reactor.core.publisher.Mono;
+
+/**
+ * Strategy of storing single new requests.
+ */
+interface RequestCreator {
+    /**
+     * Stores a new request together with its menu items and events.
+     *
+     * @param context The context holding the request payload.
+     * @return A Mono emitting the result of the creation.
+     */
+    Mono<ExecutionResult<RequestDto>> create(Context<RequestPayload> context);
+}
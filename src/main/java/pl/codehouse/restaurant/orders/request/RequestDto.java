@@ -24,26 +24,50 @@ public record RequestDto(
      * @return A new RequestDto instance.
      */
     public static RequestDto from(RequestEntity savedEntity, List<RequestMenuItemEntity> requestMenuItems, List<MenuItemEntity> menuItemEntities) {
+        return from(savedEntity, requestMenuItems, MenuSnapshot.of(menuItemEntities));
+    }
+
+    /**
+     * Creates a RequestDto from the given entities, resolving menu items from the given menu snapshot.
+     *
+     * @param savedEntity The saved request entity.
+     * @param requestMenuItems List of request menu item entities.
+     * @param menu The menu snapshot to look up the menu items in.
+     * @return A new RequestDto instance.
+     */
+    public static RequestDto from(RequestEntity savedEntity, List<RequestMenuItemEntity> requestMenuItems, MenuSnapshot menu) {
         var menuItemList = requestMenuItems.stream()
-                .map(mapRequestMenuItem(menuItemEntities))
+                .map(mapRequestMenuItem(menu))
                 .toList();
+        return of(savedEntity, menuItemList);
+    }
+
+    /**
+     * Creates a RequestDto from the given request entity and its already resolved menu items.
+     * The status is derived from the menu items, except for a collected request, which stays collected.
+     *
+     * @param savedEntity The saved request entity.
+     * @param menuItemList List of the menu items of the request.
+     * @return A new RequestDto instance.
+     */
+    static RequestDto of(RequestEntity savedEntity, List<RequestMenuItem> menuItemList) {
         var preparedItemsCount = menuItemList.stream().mapToInt(RequestMenuItem::prepared).sum();
         var totalItemsCount = menuItemList.stream().mapToInt(RequestMenuItem::quantity).sum();
-        var status = setCorrectStatus(preparedItemsCount, totalItemsCount);
+        var status = savedEntity.status() == RequestStatus.COLLECTED
+                ? RequestStatus.COLLECTED
+                : setCorrectStatus(preparedItemsCount, totalItemsCount);
         return new RequestDto(savedEntity.id(), savedEntity.customerId(), menuItemList, preparedItemsCount, totalItemsCount, status);
     }
 
     /**
      * Maps a RequestMenuItemEntity to a RequestMenuItem.
      *
-     * @param menuItemEntities List of menu item entities to search for the corresponding menu item.
+     * @param menu The menu snapshot to search for the corresponding menu item.
      * @return A function that performs the mapping.
      */
-    private static Function<RequestMenuItemEntity, RequestMenuItem> mapRequestMenuItem(List<MenuItemEntity> menuItemEntities) {
+    private static Function<RequestMenuItemEntity, RequestMenuItem> mapRequestMenuItem(MenuSnapshot menu) {
         return item -> {
-            var menuItem = menuItemEntities.stream()
-                    .filter(entity -> entity.id() == item.menuItemId())
-                    .findFirst()
+            var menuItem = menu.find(item.menuItemId())
                     .orElseThrow(() -> new IllegalStateException("Menu item not found"));
             return RequestMenuItem.from(item.id(), menuItem.id(), menuItem.name(), item.quantity(), item.prepared(), item.immediate());
         };
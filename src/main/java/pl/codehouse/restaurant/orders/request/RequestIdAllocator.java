@@ -0,0 +1,40 @@
+package pl.codehouse.restaurant.orders.request;
+
+import java.util.List;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+/**
+ * Allocates identifiers of new requests and their menu items from memory,
+ * so multi-row inserts can carry their keys without a sequence round trip per row.
+ */
+@Component
+class RequestIdAllocator {
+    private final IdBlockAllocator requestIds;
+    private final IdBlockAllocator requestMenuItemIds;
+
+    RequestIdAllocator(RequestBatchRepository requestBatchRepository, IdAllocationProperties properties) {
+        this.requestIds = new IdBlockAllocator(IdSequence.REQUEST, properties.blockSize(), requestBatchRepository::reserveIds);
+        this.requestMenuItemIds = new IdBlockAllocator(IdSequence.REQUEST_MENU_ITEM, properties.blockSize(), requestBatchRepository::reserveIds);
+    }
+
+    /**
+     * Allocates identifiers for new requests.
+     *
+     * @param count The number of identifiers to allocate.
+     * @return A Mono emitting the allocated identifiers.
+     */
+    Mono<List<Integer>> requestIds(int count) {
+        return requestIds.allocate(count);
+    }
+
+    /**
+     * Allocates identifiers for new request menu items.
+     *
+     * @param count The number of identifiers to allocate.
+     * @return A Mono emitting the allocated identifiers.
+     */
+    Mono<List<Integer>> requestMenuItemIds(int count) {
+        return requestMenuItemIds.allocate(count);
+    }
+}
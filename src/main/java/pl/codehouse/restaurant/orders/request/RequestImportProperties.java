@@ -0,0 +1,25 @@
+package pl.codehouse.restaurant.orders.request;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Configuration properties of the streaming import of requests.
+ *
+ * <p>The properties are loaded from the application's configuration
+ * file using the prefix "app.request-import".</p>
+ *
+ * @param chunkSize The number of imported requests stored together in a single transaction.
+ */
+@ConfigurationProperties("app.request-import")
+public record RequestImportProperties(
+        int chunkSize
+) {
+    /**
+     * Creates a new RequestImportProperties instance.
+     */
+    public RequestImportProperties {
+        if (chunkSize <= 0) {
+            throw new IllegalArgumentException("Request import chunk size must be greater than zero");
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package pl.codehouse.restaurant.orders.request;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.IntStream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+import pl.codehouse.commons.Context;
+import pl.codehouse.commons.ExecutionResult;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Imports an unbounded stream of requests in chunks.
+ *
+ * <p>Every chunk is stored by the {@link BatchCreateCommand} before the next one is requested from the source,
+ * so at most one chunk is held in memory and a slow database slows down reading of the stream
+ * instead of buffering it. A chunk that fails as a whole is reported as rejected and does not stop the import.</p>
+ *
+ * <p>The stream is read line by line and every line is parsed on its own, so a malformed line is reported as
+ * a rejected request at its position, like a request failing validation, instead of failing the whole import.
+ * Blank lines are skipped and take no position.</p>
+ */
+@Component
+class RequestImporter {
+    private static final Logger logger = LoggerFactory.getLogger(RequestImporter.class);
+    private static final String CHUNK_FAILED_ERROR_MESSAGE = "Unable to store request";
+    private static final String MALFORMED_LINE_ERROR_MESSAGE = "Malformed request";
+
+    private final BatchCreateCommand batchCreateCommand;
+    private final ObjectMapper objectMapper;
+    private final RequestImportProperties properties;
+
+    RequestImporter(BatchCreateCommand batchCreateCommand, ObjectMapper objectMapper, RequestImportProperties properties) {
+        this.batchCreateCommand = batchCreateCommand;
+        this.objectMapper = objectMapper;
+        this.properties = properties;
+    }
+
+    /**
+     * Stores all requests of the given stream of newline delimited JSON lines.
+     *
+     * @param lines The stream of lines, each holding a single request payload.
+     * @return A Flux emitting the result of every request, in the order of the source stream,
+     *         indexed by the position of the request within the whole stream.
+     */
+    Flux<BatchRequestResult> importRequests(Flux<String> lines) {
+        int chunkSize = properties.chunkSize();
+        return lines
+                .filter(line -> !line.isBlank())
+                .buffer(chunkSize)
+                .index()
+                .concatMap(chunk -> importChunk((int) (chunk.getT1() * chunkSize), chunk.getT2()), 0);
+    }
+
+    private Flux<BatchRequestResult> importChunk(int offset, List<String> lines) {
+        List<RequestPayload> payloads = new ArrayList<>(lines.size());
+        List<Integer> payloadIndexes = new ArrayList<>(lines.size());
+        List<BatchRequestResult> malformed = new ArrayList<>();
+        for (int index = 0; index < lines.size(); index++) {
+            try {
+                payloads.add(objectMapper.readValue(lines.get(index), RequestPayload.class));
+                payloadIndexes.add(index);
+            } catch (JsonProcessingException e) {
+                logger.warn("Rejecting malformed request at position {}: {}", offset + index, e.getOriginalMessage());
+                malformed.add(BatchRequestResult.rejected(index, MALFORMED_LINE_ERROR_MESSAGE));
+            }
+        }
+        Mono<List<BatchRequestResult>> stored = payloads.isEmpty() ? Mono.just(List.of()) : store(offset, payloads);
+        return stored
+                .flatMapIterable(results -> {
+                    List<BatchRequestResult> chunkResults = new ArrayList<>(malformed);
+                    results.forEach(result -> chunkResults.add(result.withIndex(payloadIndexes.get(result.index()))));
+                    chunkResults.sort(Comparator.comparingInt(BatchRequestResult::index));
+                    return chunkResults;
+                })
+                .map(result -> result.withOffset(offset));
+    }
+
+    private Mono<List<BatchRequestResult>> store(int offset, List<RequestPayload> payloads) {
+        return batchCreateCommand.execute(new Context<>(payloads))
+                .map(ExecutionResult::handle)
+                .onErrorResume(error -> {
+                    logger.error("Unable to import {} requests starting at position {}", payloads.size(), offset, error);
+                    return Mono.just(IntStream.range(0, payloads.size())
+                            .mapToObj(index -> BatchRequestResult.rejected(index, CHUNK_FAILED_ERROR_MESSAGE))
+                            .toList());
+                });
+    }
+}
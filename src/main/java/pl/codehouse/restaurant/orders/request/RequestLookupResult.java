@@ -0,0 +1,35 @@
+package pl.codehouse.restaurant.orders.request;
+
+/**
+ * Represents the outcome of looking up a single request by its ID within a multi-get.
+ *
+ * @param requestId The ID of the looked up request.
+ * @param found Whether the request exists.
+ * @param request The found request, or null if the request does not exist.
+ */
+public record RequestLookupResult(
+        int requestId,
+        boolean found,
+        RequestDto request
+) {
+
+    /**
+     * Creates a result for an existing request.
+     *
+     * @param request The found request.
+     * @return A new RequestLookupResult instance.
+     */
+    static RequestLookupResult found(RequestDto request) {
+        return new RequestLookupResult(request.requestId(), true, request);
+    }
+
+    /**
+     * Creates a result for a request that does not exist.
+     *
+     * @param requestId The ID of the missing request.
+     * @return A new RequestLookupResult instance.
+     */
+    static RequestLookupResult notFound(int requestId) {
+        return new RequestLookupResult(requestId, false, null);
+    }
+}
@@ -1,13 +1,22 @@
 package pl.codehouse.restaurant.orders.request;
 
+import org.springframework.data.r2dbc.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.data.repository.reactive.ReactiveCrudRepository;
 import org.springframework.stereotype.Repository;
 import reactor.core.publisher.Flux;
-import reactor.core.publisher.Mono;
 
 @Repository
 interface RequestMenuItemRepository extends ReactiveCrudRepository<RequestMenuItemEntity, Integer> {
-    Mono<RequestMenuItemEntity> findByRequestIdAndMenuItemId(int requestId, int menuItemId);
-
     Flux<RequestMenuItemEntity> findByRequestId(int requestId);
+
+    @Query("""
+            SELECT id, request_id, menu_item_id, quantity, prepared, immediate FROM request_menu_item
+            WHERE request_id = ANY(:requestIds)
+              AND created_at >= (SELECT date_trunc('day', MIN(created_at)) FROM request_partition_key WHERE id = ANY(:requestIds))
+              AND created_at < (SELECT date_trunc('day', MAX(created_at)) FROM request_partition_key WHERE id = ANY(:requestIds)) + INTERVAL '1 day'
+            UNION ALL
+            SELECT id, request_id, menu_item_id, quantity, prepared, immediate FROM request_menu_item_archive WHERE request_id = ANY(:requestIds)
+            """)
+    Flux<RequestMenuItemEntity> findByRequestIdIn(@Param("requestIds") Integer[] requestIds);
 }
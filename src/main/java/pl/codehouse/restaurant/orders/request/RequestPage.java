@@ -0,0 +1,15 @@
+package pl.codehouse.restaurant.orders.request;
+
+import java.util.List;
+
+/**
+ * Represents a single page of requests, ordered by request ID.
+ *
+ * @param requests The requests of the page.
+ * @param next The ID to pass as the {@code after} cursor to fetch the next page, or null if this is the last page.
+ */
+public record RequestPage(
+        List<RequestDto> requests,
+        Integer next
+) {
+}
@@ -0,0 +1,83 @@
+package pl.codehouse.restaurant.orders.request;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+/**
+ * Creates the daily partitions of the {@code request} and {@code request_menu_item} tables ahead of time,
+ * and drops the partitions older than the configured retention.
+ *
+ * <p>The check runs at startup and then periodically, so partitions for the configured number of upcoming days
+ * always exist and new requests never land in the default partitions. Creating partitions is idempotent and
+ * serialized by an advisory lock in the database, so several instances of the service may run the check concurrently.
+ * Rows that landed in a default partition anyway are moved to the partition of their day once it is created.
+ * Partitions past the retention are detached and dropped under the same lock, after the requests left in them
+ * were moved to the archive tables, so the number of partitions stays bounded.</p>
+ */
+@Component
+class RequestPartitionMaintainer {
+    private static final Logger logger = LoggerFactory.getLogger(RequestPartitionMaintainer.class);
+    private static final String CREATE_PARTITIONS_QUERY = "SELECT create_request_partitions(:daysAhead) AS created";
+    private static final String DROP_PARTITIONS_QUERY = "SELECT drop_request_partitions(:retentionDays) AS dropped";
+
+    private final DatabaseClient databaseClient;
+    private final RequestPartitioningProperties properties;
+
+    RequestPartitionMaintainer(DatabaseClient databaseClient, RequestPartitioningProperties properties) {
+        this.databaseClient = databaseClient;
+        this.properties = properties;
+    }
+
+    /**
+     * Creates the missing partitions for the current day and the configured number of days ahead,
+     * then drops the partitions past the retention, if one is configured.
+     *
+     * @return A Mono completing once the partitions are maintained.
+     */
+    @Scheduled(fixedDelayString = "${app.request-partitioning.maintenance-interval}")
+    Mono<Void> maintainPartitions() {
+        return createPartitions()
+                .then(Mono.defer(this::dropExpiredPartitions));
+    }
+
+    private Mono<Void> createPartitions() {
+        return databaseClient.sql(CREATE_PARTITIONS_QUERY)
+                .bind("daysAhead", properties.daysAhead())
+                .map(row -> row.get("created", Integer.class))
+                .one()
+                .doOnNext(created -> {
+                    if (created > 0) {
+                        logger.info("Created {} daily request partitions", created);
+                    }
+                })
+                .then()
+                .onErrorResume(error -> {
+                    logger.error("Unable to create request partitions, retrying with the next check", error);
+                    return Mono.empty();
+                });
+    }
+
+    private Mono<Void> dropExpiredPartitions() {
+        if (properties.retention() == null) {
+            return Mono.empty();
+        }
+        return databaseClient.sql(DROP_PARTITIONS_QUERY)
+                .bind("retentionDays", (int) properties.retention().toDays())
+                .map(row -> row.get("dropped", Integer.class))
+                .one()
+                .doOnNext(dropped -> {
+                    if (dropped > 0) {
+                        logger.info("Dropped {} daily request partitions past the retention", dropped);
+                    }
+                })
+                .then()
+                .onErrorResume(error -> {
+                    logger.error("Unable to drop expired request partitions, retrying with the next check", error);
+                    return Mono.empty();
+                });
+    }
+}
@@ -0,0 +1,41 @@
+package pl.codehouse.restaurant.orders.request;
+
+import java.time.Duration;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Configuration properties of the daily partitions of the request tables.
+ *
+ * <p>The properties are loaded from the application's configuration
+ * file using the prefix "app.request-partitioning".</p>
+ *
+ * @param daysAhead           The number of days, after the current one, for which partitions are created in advance.
+ * @param maintenanceInterval The delay between two consecutive checks for missing partitions.
+ * @param activeWindow        The age of the oldest request still considered by active request queries, or null to consider
+ *                            requests of any age. Only partitions within this window are scanned for active requests,
+ *                            so active requests older than the window are not listed.
+ * @param retention           The age after which a daily partition is dropped, or null to keep all partitions. Requests
+ *                            still stored in a dropped partition are moved to the archive tables first.
+ */
+@ConfigurationProperties("app.request-partitioning")
+public record RequestPartitioningProperties(
+        int daysAhead,
+        Duration maintenanceInterval,
+        Duration activeWindow,
+        Duration retention
+) {
+    /**
+     * Creates a new RequestPartitioningProperties instance.
+     */
+    public RequestPartitioningProperties {
+        if (daysAhead < 1) {
+            throw new IllegalArgumentException("Request partitions must be created at least one day ahead");
+        }
+        if (activeWindow != null && (activeWindow.isNegative() || activeWindow.isZero())) {
+            throw new IllegalArgumentException("Active request window must be a positive duration");
+        }
+        if (retention != null && retention.toDays() < 1) {
+            throw new IllegalArgumentException("Request partitions must be retained for at least one day");
+        }
+    }
+}
@@ -1,20 +1,43 @@
 package pl.codehouse.restaurant.orders.request;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import java.util.List;
 
 /**
  * Represents the payload of a request in the restaurant system.
  * This record encapsulates the list of requested menu items and the customer ID associated with the request.
+ * The optional idempotency key is not part of the request body, it is taken from the {@code Idempotency-Key} header.
  */
-record RequestPayload(List<RequestedMenuItemsPayload> menuItems, int customerId) {
+record RequestPayload(List<RequestedMenuItemsPayload> menuItems, int customerId, @JsonIgnore String idempotencyKey) {
     /**
      * Constructs a new RequestPayload with the given menu items and customer ID.
      * This constructor ensures that the list of menu items is immutable.
      *
      * @param menuItems The list of requested menu items.
      * @param customerId The ID of the customer making the request.
+     * @param idempotencyKey The key deduplicating retries of the same request, or null if not provided.
      */
     public RequestPayload {
         menuItems = List.copyOf(menuItems);
     }
+
+    /**
+     * Constructs a new RequestPayload without an idempotency key.
+     *
+     * @param menuItems The list of requested menu items.
+     * @param customerId The ID of the customer making the request.
+     */
+    RequestPayload(List<RequestedMenuItemsPayload> menuItems, int customerId) {
+        this(menuItems, customerId, null);
+    }
+
+    /**
+     * Creates a copy of this payload bound to the given idempotency key.
+     *
+     * @param idempotencyKey The key deduplicating retries of the same request.
+     * @return A new RequestPayload instance.
+     */
+    RequestPayload withIdempotencyKey(String idempotencyKey) {
+        return new RequestPayload(menuItems, customerId, idempotencyKey);
+    }
 }
@@ -0,0 +1,28 @@
+package pl.codehouse.restaurant.orders.request;
+
+import java.time.Duration;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Configuration properties of the progress events of requests, published when prepared items change the status of
+ * a request does not.
+ *
+ * <p>The properties are loaded from the application's configuration
+ * file using the prefix "app.request-progress".</p>
+ *
+ * @param coalesceWindow The time within which progress events of the same request are merged into the latest one,
+ *                       zero to publish every progress event immediately.
+ */
+@ConfigurationProperties("app.request-progress")
+public record RequestProgressProperties(
+        Duration coalesceWindow
+) {
+    /**
+     * Creates a new RequestProgressProperties instance.
+     */
+    public RequestProgressProperties {
+        if (coalesceWindow == null || coalesceWindow.isNegative()) {
+            throw new IllegalArgumentException("Request progress coalesce window must not be negative");
+        }
+    }
+}
@@ -0,0 +1,134 @@
+package pl.codehouse.restaurant.orders.request;
+
+import io.r2dbc.spi.Readable;
+import java.util.Objects;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import pl.codehouse.restaurant.orders.shelf.PackingStatus;
+import reactor.core.publisher.Mono;
+
+/**
+ * Repository for reads assembling whole requests with joined SQL statements,
+ * mapping the rows straight into {@link RequestDto} without intermediate entity lookups.
+ * Reads of the partitioned tables take the creation time of the request from {@code request_partition_key},
+ * so they only touch the partitions of the day the request was created.
+ */
+@Repository
+class RequestQueryRepository {
+    private static final String FIND_REQUEST_BY_ID_QUERY = """
+            SELECT r.id AS request_id, r.customer_id, r.status, r.version,
+                   i.id, i.menu_item_id, i.quantity, i.prepared, i.immediate,
+                   m.name
+            FROM %s r
+            LEFT JOIN %s i ON i.request_id = r.id
+                AND i.created_at >= date_trunc('day', r.created_at) AND i.created_at < date_trunc('day', r.created_at) + INTERVAL '1 day'
+            LEFT JOIN menu_item m ON m.id = i.menu_item_id
+            WHERE r.id = :requestId%s
+            ORDER BY i.id
+            """;
+    private static final String IN_REQUEST_PARTITION = " AND r.created_at = (SELECT created_at FROM request_partition_key WHERE id = :requestId)";
+    private static final String FIND_ACTIVE_REQUEST_BY_ID_QUERY = FIND_REQUEST_BY_ID_QUERY.formatted("request", "request_menu_item", IN_REQUEST_PARTITION);
+    private static final String FIND_ARCHIVED_REQUEST_BY_ID_QUERY = FIND_REQUEST_BY_ID_QUERY.formatted("request_archive", "request_menu_item_archive", "");
+    private static final String FIND_REQUEST_STATUS_BY_ID_QUERY = """
+            SELECT r.id AS request_id, r.status, r.prepared_count AS prepared, r.total_count AS quantity
+            FROM request r
+            WHERE r.id = :requestId%s
+            UNION ALL
+            SELECT id AS request_id, status, prepared_count AS prepared, total_count AS quantity
+            FROM request_archive
+            WHERE id = :requestId
+            LIMIT 1
+            """.formatted(IN_REQUEST_PARTITION);
+
+    private final DatabaseClient databaseClient;
+
+    RequestQueryRepository(DatabaseClient databaseClient) {
+        this.databaseClient = databaseClient;
+    }
+
+    /**
+     * Loads a request together with its menu items and the version of the request with a single statement,
+     * so the version always describes exactly the returned request.
+     * Requests that are not found in the request tables are looked up in the archive tables.
+     *
+     * @param requestId The ID of the request to load.
+     * @return A Mono emitting the versioned request, or an empty Mono if the request does not exist.
+     */
+    Mono<VersionedRequest> findVersionedRequestById(int requestId) {
+        return findVersionedRequestById(FIND_ACTIVE_REQUEST_BY_ID_QUERY, requestId)
+                .switchIfEmpty(Mono.defer(() -> findVersionedRequestById(FIND_ARCHIVED_REQUEST_BY_ID_QUERY, requestId)));
+    }
+
+    private Mono<VersionedRequest> findVersionedRequestById(String query, int requestId) {
+        return databaseClient.sql(query)
+                .bind("requestId", requestId)
+                .map(RequestRow::from)
+                .all()
+                .collectList()
+                .filter(rows -> !rows.isEmpty())
+                .map(rows -> new VersionedRequest(
+                        RequestDto.of(
+                                rows.getFirst().request(),
+                                rows.stream().map(RequestRow::menuItem).filter(Objects::nonNull).toList()),
+                        rows.getFirst().version()));
+    }
+
+    /**
+     * Loads the status and the prepared and total item counts of a request from the counters of the request row,
+     * without loading its menu items. Archived requests are included.
+     *
+     * @param requestId The ID of the request.
+     * @return A Mono emitting the status of the request, or an empty Mono if the request does not exist.
+     */
+    Mono<RequestStatusDto> findRequestStatusById(int requestId) {
+        return databaseClient.sql(FIND_REQUEST_STATUS_BY_ID_QUERY)
+                .bind("requestId", requestId)
+                .map(row -> new RequestStatusDto(
+                        row.get("request_id", Integer.class),
+                        packingStatusOf(RequestStatus.valueOf(row.get("status", String.class))),
+                        row.get("prepared", Integer.class),
+                        row.get("quantity", Integer.class)))
+                .one();
+    }
+
+    private static PackingStatus packingStatusOf(RequestStatus status) {
+        return switch (status) {
+            case NEW -> PackingStatus.NOT_STARTED;
+            case IN_PROGRESS -> PackingStatus.IN_PROGRESS;
+            case READY_TO_COLLECT, COLLECTED -> PackingStatus.READY_TO_COLLECT;
+        };
+    }
+
+    /**
+     * Single row of a request joined with one of its menu items.
+     * The menu item is null for a request without menu items.
+     */
+    private record RequestRow(RequestEntity request, int version, RequestMenuItem menuItem) {
+
+        static RequestRow from(Readable row) {
+            RequestEntity request = new RequestEntity(
+                    row.get("request_id", Integer.class),
+                    row.get("customer_id", Integer.class),
+                    RequestStatus.valueOf(row.get("status", String.class))
+            );
+            int version = row.get("version", Integer.class);
+            Integer requestMenuItemId = row.get("id", Integer.class);
+            if (requestMenuItemId == null) {
+                return new RequestRow(request, version, null);
+            }
+            String menuItemName = row.get("name", String.class);
+            if (menuItemName == null) {
+                throw new IllegalStateException("Menu item not found");
+            }
+            RequestMenuItem menuItem = RequestMenuItem.from(
+                    requestMenuItemId,
+                    row.get("menu_item_id", Integer.class),
+                    menuItemName,
+                    row.get("quantity", Integer.class),
+                    row.get("prepared", Integer.class),
+                    row.get("immediate", Boolean.class)
+            );
+            return new RequestRow(request, version, menuItem);
+        }
+    }
+}
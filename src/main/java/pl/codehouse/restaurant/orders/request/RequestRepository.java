@@ -11,11 +11,59 @@ import reactor.core.publisher.Mono;
 
 @Repository
 interface RequestRepository extends ReactiveCrudRepository<RequestEntity, Integer> {
+    /**
+     * Matches requests whose stored status is one of the {@code :statuses}, served by the {@code (status, id)} index.
+     * The stored status is moved along with the item counters by every update of the prepared items.
+     */
+    String WITH_STATUS = "status IN (:statuses)";
 
     @Modifying
-    @Query("UPDATE request SET status = :status WHERE id = :requestId")
+    @Query("UPDATE request SET status = :status, version = version + 1"
+            + " WHERE id = :requestId AND created_at = (SELECT created_at FROM request_partition_key WHERE id = :requestId)")
     Mono<Boolean> updateStatusById(@Param("requestId") int requestId, @Param("status") RequestStatus requestStatus);
 
-    @Query("SELECT * FROM request WHERE status IN (:statuses)")
-    Flux<RequestEntity> findByStatus(@Param("statuses") List<RequestStatus> requestStatus);
+    @Query("SELECT request_id FROM request_idempotency_key WHERE idempotency_key = :idempotencyKey")
+    Mono<Integer> findIdByIdempotencyKey(@Param("idempotencyKey") String idempotencyKey);
+
+    @Query("""
+            SELECT id, customer_id, status FROM request
+            WHERE id = ANY(:requestIds)
+              AND created_at = ANY(ARRAY(SELECT created_at FROM request_partition_key WHERE id = ANY(:requestIds)))
+            UNION ALL
+            SELECT id, customer_id, status FROM request_archive WHERE id = ANY(:requestIds)
+            """)
+    Flux<RequestEntity> findByIdIn(@Param("requestIds") Integer[] requestIds);
+
+    @Query("SELECT * FROM request WHERE " + WITH_STATUS)
+    Flux<RequestEntity> findActive(@Param("statuses") List<RequestStatus> requestStatus);
+
+    @Query("SELECT * FROM request WHERE " + WITH_STATUS + " AND customer_id = :customerId")
+    Flux<RequestEntity> findActiveByCustomerId(@Param("statuses") List<RequestStatus> requestStatus, @Param("customerId") int customerId);
+
+    @Query("SELECT * FROM request WHERE " + WITH_STATUS + " AND created_at >= LOCALTIMESTAMP - make_interval(secs => :windowSeconds)")
+    Flux<RequestEntity> findRecentActive(@Param("statuses") List<RequestStatus> requestStatus, @Param("windowSeconds") long windowSeconds);
+
+    @Query("SELECT * FROM request WHERE " + WITH_STATUS
+            + " AND customer_id = :customerId AND created_at >= LOCALTIMESTAMP - make_interval(secs => :windowSeconds)")
+    Flux<RequestEntity> findRecentActiveByCustomerId(@Param("statuses") List<RequestStatus> requestStatus,
+                                                     @Param("customerId") int customerId,
+                                                     @Param("windowSeconds") long windowSeconds);
+
+    @Query("""
+            (SELECT id, customer_id, status FROM request WHERE id > :after ORDER BY id LIMIT :limit)
+            UNION ALL
+            (SELECT id, customer_id, status FROM request_archive WHERE id > :after ORDER BY id LIMIT :limit)
+            ORDER BY id
+            LIMIT :limit
+            """)
+    Flux<RequestEntity> findPage(@Param("after") int after, @Param("limit") int limit);
+
+    @Query("""
+            (SELECT id, customer_id, status FROM request WHERE status = :status AND id > :after ORDER BY id LIMIT :limit)
+            UNION ALL
+            (SELECT id, customer_id, status FROM request_archive WHERE status = :status AND id > :after ORDER BY id LIMIT :limit)
+            ORDER BY id
+            LIMIT :limit
+            """)
+    Flux<RequestEntity> findPageByStatus(@Param("status") RequestStatus requestStatus, @Param("after") int after, @Param("limit") int limit);
 }
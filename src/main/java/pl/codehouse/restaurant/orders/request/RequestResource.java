@@ -10,11 +10,18 @@ import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.server.ServerWebExchange;
 import pl.codehouse.commons.Context;
 import pl.codehouse.commons.ExecutionResult;
+import pl.codehouse.restaurant.orders.exceptions.InvalidStatusTransitionException;
+import pl.codehouse.restaurant.orders.exceptions.ResourceNotFoundException;
+import pl.codehouse.restaurant.orders.exceptions.ResourceType;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 import reactor.core.publisher.SignalType;
@@ -23,34 +30,110 @@ import reactor.core.publisher.SignalType;
 @RequestMapping(value = "/request", consumes = {MediaType.APPLICATION_JSON_VALUE}, produces = {MediaType.APPLICATION_JSON_VALUE})
 class RequestResource {
     private static final Logger logger = LoggerFactory.getLogger(RequestResource.class);
-    private final MenuItemRepository menuItemRepository;
+    private static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+    private static final int MAX_PAGE_SIZE = 500;
+    private final MenuCatalog menuCatalog;
     private final RequestService requestService;
-    private final CreateCommand createCommand;
+    private final IdempotentCreateCommand createCommand;
+    private final BatchCreateCommand batchCreateCommand;
+    private final RequestImporter requestImporter;
+    private final CollectCommand collectCommand;
 
-    RequestResource(MenuItemRepository menuItemRepository, RequestService requestService, CreateCommand createCommand) {
-        this.menuItemRepository = menuItemRepository;
+    RequestResource(MenuCatalog menuCatalog,
+                    RequestService requestService,
+                    IdempotentCreateCommand createCommand,
+                    BatchCreateCommand batchCreateCommand,
+                    RequestImporter requestImporter,
+                    CollectCommand collectCommand) {
+        this.menuCatalog = menuCatalog;
         this.requestService = requestService;
         this.createCommand = createCommand;
+        this.batchCreateCommand = batchCreateCommand;
+        this.requestImporter = requestImporter;
+        this.collectCommand = collectCommand;
     }
 
     @PostMapping
     @ResponseStatus(HttpStatus.CREATED)
-    Mono<RequestDto> createRequest(@RequestBody RequestPayload request) {
-        return createCommand.execute(new Context<>(request))
+    Mono<RequestDto> createRequest(@RequestBody RequestPayload request,
+                                   @RequestHeader(name = IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey) {
+        return createCommand.execute(new Context<>(request.withIdempotencyKey(idempotencyKey)))
                 .map(ExecutionResult::handle);
     }
 
+    @PostMapping("/batch")
+    @ResponseStatus(HttpStatus.OK)
+    Mono<List<BatchRequestResult>> createRequests(@RequestBody List<RequestPayload> requests) {
+        return batchCreateCommand.execute(new Context<>(requests))
+                .map(ExecutionResult::handle);
+    }
+
+    @PostMapping(value = "/stream", consumes = MediaType.APPLICATION_NDJSON_VALUE, produces = MediaType.APPLICATION_NDJSON_VALUE)
+    @ResponseStatus(HttpStatus.OK)
+    Flux<BatchRequestResult> importRequests(@RequestBody Flux<String> lines) {
+        return requestImporter.importRequests(lines);
+    }
+
+    @GetMapping(value = "/active", consumes = MediaType.ALL_VALUE, produces = {MediaType.APPLICATION_NDJSON_VALUE, MediaType.TEXT_EVENT_STREAM_VALUE})
+    @ResponseStatus(HttpStatus.OK)
+    Flux<RequestDto> streamActiveRequests(@RequestParam(name = "status", required = false) List<RequestStatus> statuses,
+                                          @RequestParam(name = "customerId", required = false) Integer customerId) {
+        return requestService.fetchActive(statuses == null ? List.of() : statuses, customerId);
+    }
+
+    @GetMapping(consumes = MediaType.ALL_VALUE)
+    @ResponseStatus(HttpStatus.OK)
+    Mono<RequestPage> fetchRequests(@RequestParam(name = "status", required = false) RequestStatus status,
+                                    @RequestParam(name = "after", defaultValue = "0") int after,
+                                    @RequestParam(name = "limit", defaultValue = "50") int limit) {
+        if (limit < 1 || limit > MAX_PAGE_SIZE) {
+            return Mono.error(new ResponseStatusException(HttpStatus.BAD_REQUEST, "Page limit must be between 1 and " + MAX_PAGE_SIZE));
+        }
+        return requestService.findPage(status, after, limit);
+    }
+
+    @GetMapping(params = "ids", consumes = MediaType.ALL_VALUE)
+    @ResponseStatus(HttpStatus.OK)
+    Mono<List<RequestLookupResult>> fetchRequestsByIds(@RequestParam(name = "ids") List<Integer> requestIds) {
+        if (requestIds.size() > MAX_PAGE_SIZE) {
+            return Mono.error(new ResponseStatusException(HttpStatus.BAD_REQUEST, "At most " + MAX_PAGE_SIZE + " requests can be fetched at once"));
+        }
+        return requestService.findByIds(requestIds);
+    }
+
     @GetMapping("/{requestId}")
     @ResponseStatus(HttpStatus.OK)
-    Mono<RequestDto> fetchRequest(@PathVariable int requestId) {
-        return requestService.findById(requestId);
+    Mono<RequestDto> fetchRequest(@PathVariable int requestId, ServerWebExchange exchange) {
+        return requestService.findVersionedById(requestId)
+                .filter(versioned -> !exchange.checkNotModified(requestEtag(requestId, versioned.version())))
+                .map(VersionedRequest::request);
+    }
+
+    @GetMapping("/{requestId}/status")
+    @ResponseStatus(HttpStatus.OK)
+    Mono<RequestStatusDto> fetchRequestStatus(@PathVariable int requestId) {
+        return requestService.findStatusById(requestId);
+    }
+
+    @PostMapping(value = "/{requestId}/collect", consumes = MediaType.ALL_VALUE)
+    @ResponseStatus(HttpStatus.OK)
+    Mono<RequestDto> collectRequest(@PathVariable int requestId) {
+        return collectCommand.execute(new Context<>(requestId))
+                .map(ExecutionResult::handle)
+                .switchIfEmpty(Mono.error(() -> new ResourceNotFoundException("Request " + requestId + " not found", ResourceType.ORDER)))
+                .flatMap(transition -> transition.changed()
+                        ? requestService.findById(requestId)
+                        : Mono.error(new InvalidStatusTransitionException(
+                                "Request " + requestId + " cannot be collected in status " + transition.previousStatus())));
     }
 
     @GetMapping("/menu-items")
-    Mono<List<MenuItem>> fetchAvailableMenuItems() {
-        return menuItemRepository.findAll()
-                .map(MenuItem::from)
-                .collectList();
+    Mono<List<MenuItem>> fetchAvailableMenuItems(ServerWebExchange exchange) {
+        return menuCatalog.snapshot()
+                .filter(menu -> !exchange.checkNotModified(menu.etag()))
+                .map(menu -> menu.menuItems().stream()
+                        .map(MenuItem::from)
+                        .toList());
     }
 
     @GetMapping(value = "/notification/status", consumes = MediaType.APPLICATION_JSON_VALUE, produces = MediaType.TEXT_EVENT_STREAM_VALUE)
@@ -69,4 +152,8 @@ class RequestResource {
                         .data(statusDto)
                         .build());
     }
+
+    private static String requestEtag(int requestId, int version) {
+        return "request-" + requestId + "-" + version;
+    }
 }
@@ -1,5 +1,7 @@
 package pl.codehouse.restaurant.orders.request;
 
+import java.util.Collection;
+import java.util.List;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
@@ -16,6 +18,15 @@ public interface RequestService {
      */
     Mono<RequestDto> updateCollectedItems(UpdatePreparedMenuItemsDto updateDto);
 
+    /**
+     * Updates the collected items of several menu items of a request at once.
+     *
+     * @param requestId The ID of the request.
+     * @param deltas The numbers of additionally collected items, per menu item.
+     * @return A Mono emitting the updated RequestDto.
+     */
+    Mono<RequestDto> updateCollectedItems(int requestId, List<PreparedMenuItemDelta> deltas);
+
     /**
      * Retrieves a request by its ID.
      *
@@ -24,13 +35,68 @@ public interface RequestService {
      */
     Mono<RequestDto> findById(int requestId);
 
+    /**
+     * Finds a request by its ID, reading it from the database instead of the request cache.
+     * Meant for decisions that must not act on a request changed by another instance.
+     *
+     * @param requestId The ID of the request to find.
+     * @return A Mono emitting the current RequestDto for the specified ID.
+     */
+    Mono<RequestDto> findCurrentById(int requestId);
+
+    /**
+     * Retrieves multiple requests by their IDs.
+     *
+     * @param requestIds The IDs of the requests to retrieve.
+     * @return A Mono emitting one result per distinct ID, in the order of the IDs, marking the requests that do not exist.
+     */
+    Mono<List<RequestLookupResult>> findByIds(List<Integer> requestIds);
+
+    /**
+     * Retrieves the status and item counts of a request without loading its menu items.
+     *
+     * @param requestId The ID of the request.
+     * @return A Mono emitting the RequestStatusDto for the specified ID.
+     */
+    Mono<RequestStatusDto> findStatusById(int requestId);
+
+    /**
+     * Retrieves a request together with its version, which changes whenever the request changes.
+     * Both are served as one entry of the request cache, so the version always describes the returned request.
+     *
+     * @param requestId The ID of the request.
+     * @return A Mono emitting the versioned request, or an empty Mono if the request does not exist.
+     */
+    Mono<VersionedRequest> findVersionedById(int requestId);
+
     /**
      * Fetches all active requests.
+     * When the {@code app.request-partitioning.active-window} is set, active requests created before the window are not listed.
      *
      * @return A Flux emitting RequestDto objects for all active requests.
      */
     Flux<RequestDto> fetchActive();
 
+    /**
+     * Fetches active requests matching the given filters, limited to the active window like {@link #fetchActive()}.
+     *
+     * @param statuses The statuses to filter by, compared with the stored status of the requests.
+     *                 Only active statuses are taken into account. All active statuses if empty.
+     * @param customerId The ID of the customer to filter by, or null for requests of all customers.
+     * @return A Flux emitting RequestDto objects for the matching active requests.
+     */
+    Flux<RequestDto> fetchActive(Collection<RequestStatus> statuses, Integer customerId);
+
+    /**
+     * Fetches a page of requests with IDs greater than the given cursor, ordered by request ID.
+     *
+     * @param status The status to filter by, or null for requests of all statuses.
+     * @param after The ID of the last request of the previous page, or 0 for the first page.
+     * @param limit The maximum number of requests on the page.
+     * @return A Mono emitting the page of requests.
+     */
+    Mono<RequestPage> findPage(RequestStatus status, int after, int limit);
+
     /**
      * Listens for updates on request statuses.
      *
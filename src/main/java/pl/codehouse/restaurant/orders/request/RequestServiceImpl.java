@@ -1,5 +1,8 @@
 package pl.codehouse.restaurant.orders.request;
 
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Comparator;
 import java.util.List;
 import java.util.Set;
 import java.util.function.Function;
@@ -11,7 +14,6 @@ import pl.codehouse.commons.Context;
 import pl.codehouse.restaurant.orders.shelf.PackingStatus;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
-import reactor.util.function.Tuple2;
 
 /**
  * Implementation of the RequestService interface.
@@ -24,11 +26,17 @@ public class RequestServiceImpl implements RequestService {
     private static final Logger logger = LoggerFactory.getLogger(RequestServiceImpl.class);
 
     private static final List<RequestStatus> ACTIVE_REQUEST_STATUSES = List.of(RequestStatus.NEW, RequestStatus.IN_PROGRESS, RequestStatus.READY_TO_COLLECT);
+    private static final int ACTIVE_REQUESTS_CHUNK_SIZE = 500;
+    private static final int ACTIVE_REQUESTS_CHUNKS_AHEAD = 1;
 
     private final RequestRepository requestRepository;
     private final RequestMenuItemRepository requestMenuItemRepository;
-    private final MenuItemRepository menuItemRepository;
+    private final RequestQueryRepository requestQueryRepository;
+    private final RequestCache requestCache;
+    private final RequestPartitioningProperties partitioningProperties;
+    private final MenuCatalog menuCatalog;
     private final UpdatePrepairedMenuItemsCommand updatePrepairedMenuItemsCommand;
+    private final UpdatePreparedMenuItemsBatchCommand updatePreparedMenuItemsBatchCommand;
     private final RequestStatusChangeListener requestStatusChangeListener;
 
     /**
@@ -36,24 +44,37 @@ public class RequestServiceImpl implements RequestService {
      *
      * @param requestRepository The repository for managing request entities.
      * @param requestMenuItemRepository The repository for managing request menu item entities.
-     * @param menuItemRepository The repository for managing menu item entities.
+     * @param requestQueryRepository The repository loading whole requests with joined queries.
+     * @param requestCache The read-through cache of assembled requests.
+     * @param partitioningProperties The configuration of the request partitions, limiting the age of active requests.
+     * @param menuCatalog The in-memory catalog of menu items.
      * @param updatePrepairedMenuItemsCommand The command for updating prepared menu items.
+     * @param updatePreparedMenuItemsBatchCommand The command for updating several prepared menu items at once.
      * @param requestStatusChangeListener The listener for request status changes.
      */
     public RequestServiceImpl(RequestRepository requestRepository,
                               RequestMenuItemRepository requestMenuItemRepository,
-                              MenuItemRepository menuItemRepository,
+                              RequestQueryRepository requestQueryRepository,
+                              RequestCache requestCache,
+                              RequestPartitioningProperties partitioningProperties,
+                              MenuCatalog menuCatalog,
                               UpdatePrepairedMenuItemsCommand updatePrepairedMenuItemsCommand,
+                              UpdatePreparedMenuItemsBatchCommand updatePreparedMenuItemsBatchCommand,
                               RequestStatusChangeListener requestStatusChangeListener) {
         this.requestRepository = requestRepository;
         this.requestMenuItemRepository = requestMenuItemRepository;
-        this.menuItemRepository = menuItemRepository;
+        this.requestQueryRepository = requestQueryRepository;
+        this.requestCache = requestCache;
+        this.partitioningProperties = partitioningProperties;
+        this.menuCatalog = menuCatalog;
         this.updatePrepairedMenuItemsCommand = updatePrepairedMenuItemsCommand;
+        this.updatePreparedMenuItemsBatchCommand = updatePreparedMenuItemsBatchCommand;
         this.requestStatusChangeListener = requestStatusChangeListener;
     }
 
     /**
      * Updates the collected items for a request and returns the updated request.
+     * The command invalidates the cached request once the update is committed, so the returned request is always fresh.
      *
      * @param updateDto The DTO containing the update information.
      * @return A Mono emitting the updated RequestDto.
@@ -64,36 +85,177 @@ public class RequestServiceImpl implements RequestService {
                 .then(findById(updateDto.requestId()));
     }
 
+    /**
+     * Updates the collected items of several menu items of a request in a single transaction and returns the updated request.
+     * The status of the request is recomputed and published once, regardless of the number of updated menu items.
+     *
+     * @param requestId The ID of the request.
+     * @param deltas The numbers of additionally collected items, per menu item.
+     * @return A Mono emitting the updated RequestDto, or the unchanged RequestDto if there is nothing to update.
+     */
+    @Override
+    public Mono<RequestDto> updateCollectedItems(int requestId, List<PreparedMenuItemDelta> deltas) {
+        if (deltas.isEmpty()) {
+            return findById(requestId);
+        }
+        return updatePreparedMenuItemsBatchCommand.execute(new Context<>(new UpdatePreparedMenuItemsBatchDto(requestId, deltas)))
+                .then(findById(requestId));
+    }
+
     /**
      * Finds a request by its ID.
+     * The request is read through the same cache entry as by {@link #findVersionedById(int)}.
      *
      * @param requestId The ID of the request to find.
      * @return A Mono emitting the RequestDto for the specified ID.
      */
     @Override
     public Mono<RequestDto> findById(int requestId) {
-        Mono<RequestEntity> entityMono = requestRepository.findById(requestId);
-        Mono<Tuple2<List<RequestMenuItemEntity>, List<MenuItemEntity>>> tuple2Mono = requestMenuItemRepository.findByRequestId(requestId)
+        return findVersionedById(requestId)
+                .map(VersionedRequest::request);
+    }
+
+    /**
+     * Finds a request by its ID, bypassing the request cache.
+     * The cached entry of a request is invalidated on other instances only once its status change message arrives,
+     * so decisions acting on the prepared counts, such as packing, read the request from the database.
+     *
+     * @param requestId The ID of the request to find.
+     * @return A Mono emitting the current RequestDto for the specified ID.
+     */
+    @Override
+    public Mono<RequestDto> findCurrentById(int requestId) {
+        return requestQueryRepository.findVersionedRequestById(requestId)
+                .map(VersionedRequest::request);
+    }
+
+    /**
+     * Retrieves multiple requests by their IDs.
+     * The requests and their menu items are loaded with one query each, regardless of the number of IDs.
+     *
+     * @param requestIds The IDs of the requests to retrieve.
+     * @return A Mono emitting one result per distinct ID, in the order of the IDs, marking the requests that do not exist.
+     */
+    @Override
+    public Mono<List<RequestLookupResult>> findByIds(List<Integer> requestIds) {
+        List<Integer> distinctIds = requestIds.stream().distinct().toList();
+        if (distinctIds.isEmpty()) {
+            return Mono.just(List.of());
+        }
+        return requestRepository.findByIdIn(distinctIds.toArray(Integer[]::new))
                 .collectList()
-                .flatMap(getListMonoFunction());
-        return Mono.zip(entityMono, tuple2Mono)
-                .map(tuple2 -> RequestDto.from(tuple2.getT1(), tuple2.getT2().getT1(), tuple2.getT2().getT2()));
+                .flatMapMany(this::assembleRequests)
+                .collectMap(RequestDto::requestId)
+                .map(requestsById -> distinctIds.stream()
+                        .map(requestId -> requestsById.containsKey(requestId)
+                                ? RequestLookupResult.found(requestsById.get(requestId))
+                                : RequestLookupResult.notFound(requestId))
+                        .toList());
+    }
+
+    /**
+     * Retrieves the status and item counts of a request.
+     * The counts are read from the counters materialized on the request row.
+     *
+     * @param requestId The ID of the request.
+     * @return A Mono emitting the RequestStatusDto for the specified ID.
+     */
+    @Override
+    public Mono<RequestStatusDto> findStatusById(int requestId) {
+        return requestQueryRepository.findRequestStatusById(requestId);
+    }
+
+    /**
+     * Retrieves a request together with its version.
+     * The request is served from the request cache, on a miss the request, its menu items, their names and the version
+     * of the request are loaded with a single joined query, falling back to the archive tables for archived requests.
+     * The version is cached in the same entry as the request, so it always describes the returned request.
+     *
+     * @param requestId The ID of the request.
+     * @return A Mono emitting the versioned request, or an empty Mono if the request does not exist.
+     */
+    @Override
+    public Mono<VersionedRequest> findVersionedById(int requestId) {
+        return requestCache.get(requestId, requestQueryRepository::findVersionedRequestById);
     }
 
     /**
      * Fetches all active requests.
+     * When an active window is configured, only requests created within it are considered, so only the most recent
+     * daily partitions are scanned no matter how much history is stored, and older active requests are not listed.
+     * Active requests are streamed in chunks, and the menu items of every chunk are loaded with a single query,
+     * so the number of queries depends on the number of chunks rather than on the number of requests.
+     * Only one chunk is read ahead while the current one is assembled, so a slow client holds at most two chunks in memory.
      *
      * @return A Flux emitting RequestDto objects for all active requests.
      */
     @Override
     public Flux<RequestDto> fetchActive() {
-        return requestRepository.findByStatus(ACTIVE_REQUEST_STATUSES)
-                .doOnComplete(() -> logger.info(">>.findByStatus({}) completed", ACTIVE_REQUEST_STATUSES))
-                .doOnNext(r -> logger.info("Fetching components of RequestDTO for {}, status: {}", r.id(), r.status()))
-                .flatMap(request -> requestMenuItemRepository.findByRequestId(request.id())
-                        .collectList()
-                        .flatMap(getListMonoFunction())
-                        .map(tuple -> RequestDto.from(request, tuple.getT1(), tuple.getT2())));
+        return fetchActive(ACTIVE_REQUEST_STATUSES, null);
+    }
+
+    /**
+     * Fetches active requests matching the given filters, assembled the same way as by {@link #fetchActive()}.
+     *
+     * @param statuses The statuses to filter by, compared with the stored status of the requests.
+     *                 Only active statuses are taken into account. All active statuses if empty.
+     * @param customerId The ID of the customer to filter by, or null for requests of all customers.
+     * @return A Flux emitting RequestDto objects for the matching active requests.
+     */
+    @Override
+    public Flux<RequestDto> fetchActive(Collection<RequestStatus> statuses, Integer customerId) {
+        List<RequestStatus> activeStatuses = statuses.isEmpty()
+                ? ACTIVE_REQUEST_STATUSES
+                : ACTIVE_REQUEST_STATUSES.stream().filter(statuses::contains).toList();
+        if (activeStatuses.isEmpty()) {
+            return Flux.empty();
+        }
+        return findActiveRequests(activeStatuses, customerId)
+                .doOnComplete(() -> logger.info(">>.findActive({}) completed", activeStatuses))
+                .buffer(ACTIVE_REQUESTS_CHUNK_SIZE)
+                .concatMap(this::assembleRequests, ACTIVE_REQUESTS_CHUNKS_AHEAD);
+    }
+
+    private Flux<RequestEntity> findActiveRequests(List<RequestStatus> activeStatuses, Integer customerId) {
+        Duration activeWindow = partitioningProperties.activeWindow();
+        if (activeWindow == null) {
+            return customerId == null
+                    ? requestRepository.findActive(activeStatuses)
+                    : requestRepository.findActiveByCustomerId(activeStatuses, customerId);
+        }
+        long windowSeconds = activeWindow.toSeconds();
+        return customerId == null
+                ? requestRepository.findRecentActive(activeStatuses, windowSeconds)
+                : requestRepository.findRecentActiveByCustomerId(activeStatuses, customerId, windowSeconds);
+    }
+
+    /**
+     * Fetches a page of requests with IDs greater than the given cursor, ordered by request ID.
+     * Pages are read with keyset pagination, so the cost of a page does not depend on how deep it is.
+     * One request more than the limit is read to tell whether there is a next page.
+     *
+     * @param status The status to filter by, or null for requests of all statuses.
+     * @param after The ID of the last request of the previous page, or 0 for the first page.
+     * @param limit The maximum number of requests on the page.
+     * @return A Mono emitting the page of requests.
+     */
+    @Override
+    public Mono<RequestPage> findPage(RequestStatus status, int after, int limit) {
+        Flux<RequestEntity> requests = status == null
+                ? requestRepository.findPage(after, limit + 1)
+                : requestRepository.findPageByStatus(status, after, limit + 1);
+        return requests
+                .collectList()
+                .flatMap(page -> {
+                    if (page.isEmpty()) {
+                        return Mono.just(new RequestPage(List.of(), null));
+                    }
+                    List<RequestEntity> pageRequests = page.size() > limit ? page.subList(0, limit) : page;
+                    Integer next = page.size() > limit ? pageRequests.getLast().id() : null;
+                    return assembleRequests(pageRequests)
+                            .collectList()
+                            .map(requestDtos -> new RequestPage(requestDtos, next));
+                });
     }
 
     /**
@@ -112,18 +274,30 @@ public class RequestServiceImpl implements RequestService {
                 });
     }
 
-    /**
-     * Creates a function to fetch menu items for a list of request menu item entities.
-     *
-     * @return A Function that takes a List of RequestMenuItemEntity and returns a Mono of Tuple2 containing
-     *         the original list and a list of corresponding MenuItemEntity objects.
-     */
-    private Function<List<RequestMenuItemEntity>, Mono<? extends Tuple2<List<RequestMenuItemEntity>, List<MenuItemEntity>>>> getListMonoFunction() {
-        return entities -> {
-            Set<Integer> menuItemIds = entities.stream()
-                    .map(RequestMenuItemEntity::menuItemId)
-                    .collect(Collectors.toSet());
-            return Mono.zip(Mono.just(entities), menuItemRepository.findAllById(menuItemIds).collectList());
-        };
+    private Flux<RequestDto> assembleRequests(List<RequestEntity> requests) {
+        logger.info("Fetching components of {} RequestDTOs", requests.size());
+        Integer[] requestIds = requests.stream().map(RequestEntity::id).toArray(Integer[]::new);
+        return requestMenuItemRepository.findByRequestIdIn(requestIds)
+                .collectMultimap(RequestMenuItemEntity::requestId)
+                .flatMap(menuItemsByRequest -> {
+                    Set<Integer> menuItemIds = menuItemsByRequest.values().stream()
+                            .flatMap(Collection::stream)
+                            .map(RequestMenuItemEntity::menuItemId)
+                            .collect(Collectors.toSet());
+                    return menuCatalog.resolve(menuItemIds)
+                            .map(menu -> requests.stream()
+                                    .map(request -> RequestDto.from(request, sortedById(menuItemsByRequest.get(request.id())), menu))
+                                    .toList());
+                })
+                .flatMapIterable(Function.identity());
+    }
+
+    private static List<RequestMenuItemEntity> sortedById(Collection<RequestMenuItemEntity> menuItems) {
+        if (menuItems == null) {
+            return List.of();
+        }
+        return menuItems.stream()
+                .sorted(Comparator.comparingInt(RequestMenuItemEntity::id))
+                .toList();
     }
 }
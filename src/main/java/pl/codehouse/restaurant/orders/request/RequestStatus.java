@@ -1,8 +1,16 @@
 package pl.codehouse.restaurant.orders.request;
 
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+
 /**
  * Enum representing the various statuses a request can have in the restaurant system.
  * This enum is used to track the lifecycle of a request from creation to completion.
+ *
+ * <p>The lifecycle is a state machine: a request moves forward only, from {@link #NEW} through {@link #IN_PROGRESS}
+ * to {@link #READY_TO_COLLECT} and finally {@link #COLLECTED}, where a request whose items are all prepared at once
+ * skips {@link #IN_PROGRESS}. Staying in the same status is not a transition.</p>
  */
 public enum RequestStatus {
     /**
@@ -23,5 +31,40 @@ public enum RequestStatus {
     /**
      * Indicates a request that has been collected by the customer, completing the order process.
      */
-    COLLECTED
+    COLLECTED;
+
+    /**
+     * Returns the statuses a request in this status may move to.
+     *
+     * @return The next statuses of the lifecycle, empty for the final status.
+     */
+    public Set<RequestStatus> nextStatuses() {
+        return switch (this) {
+            case NEW -> Set.of(IN_PROGRESS, READY_TO_COLLECT);
+            case IN_PROGRESS -> Set.of(READY_TO_COLLECT);
+            case READY_TO_COLLECT -> Set.of(COLLECTED);
+            case COLLECTED -> Set.of();
+        };
+    }
+
+    /**
+     * Checks whether a request in this status may move to the given status.
+     *
+     * @param status The target status.
+     * @return true if the lifecycle allows the transition, false otherwise, including when the status stays the same.
+     */
+    public boolean canTransitionTo(RequestStatus status) {
+        return nextStatuses().contains(status);
+    }
+
+    /**
+     * Lists all transitions allowed by the lifecycle.
+     *
+     * @return The allowed transitions as pairs of the source and the target status.
+     */
+    static List<RequestStatus[]> transitions() {
+        return Arrays.stream(values())
+                .flatMap(from -> from.nextStatuses().stream().sorted().map(to -> new RequestStatus[] {from, to}))
+                .toList();
+    }
 }
@@ -7,22 +7,36 @@ import org.springframework.stereotype.Component;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Sinks;
 
+/**
+ * Listens to request status changes, invalidating the cached requests and forwarding the changes to the notification stream.
+ *
+ * <p>Every application instance holds its own request cache and its own notification subscribers, so every instance
+ * has to receive every change. The listener therefore joins a consumer group named after the instance, configured with
+ * {@code app.kafka.request-status.consumer.instance-id}, rather than a group shared by all instances. The name stays the
+ * same across restarts of the instance, so restarts reuse its group instead of leaving orphaned groups behind. The
+ * listener starts from the latest offset, as changes published before the instance started concern no entry of its
+ * empty cache.</p>
+ */
 @Component
 class RequestStatusChangeListener {
 
     private final Sinks.Many<RequestStatusChangeMessage> notificationSink;
+    private final RequestCache requestCache;
 
     private static final Logger logger = LoggerFactory.getLogger(RequestStatusChangeListener.class);
 
-    RequestStatusChangeListener() {
+    RequestStatusChangeListener(RequestCache requestCache) {
         this.notificationSink = Sinks.many().multicast().onBackpressureBuffer();
+        this.requestCache = requestCache;
     }
 
     @KafkaListener(
             topics = "${app.kafka.request-status.topic.topic-name}",
-            groupId = "request-status-change-group")
+            groupId = "request-status-change-${app.kafka.request-status.consumer.instance-id}",
+            properties = "auto.offset.reset=latest")
     void listen(RequestStatusChangeMessage message) {
         logger.info("Received request status change: {}", message);
+        requestCache.invalidate(message.requestId());
         notificationSink.tryEmitNext(message);
     }
 
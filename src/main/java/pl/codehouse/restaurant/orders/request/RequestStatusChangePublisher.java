@@ -1,5 +1,9 @@
 package pl.codehouse.restaurant.orders.request;
 
+import jakarta.annotation.PreDestroy;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.kafka.core.KafkaTemplate;
@@ -7,24 +11,79 @@ import org.springframework.messaging.Message;
 import org.springframework.messaging.support.GenericMessage;
 import org.springframework.stereotype.Component;
 import pl.codehouse.restaurant.orders.shelf.PackingStatus;
+import reactor.core.publisher.Mono;
 
+/**
+ * Publishes request status changes to Kafka.
+ *
+ * <p>Every real transition of the request lifecycle is published immediately once its transaction is committed.
+ * Publishing is not transactional, so a transition is not published if the instance stops right after the commit.
+ * Progress of a request that stays in the same status is coalesced instead: the first progress event of a request
+ * opens the configured window, later ones within the window replace it, and only the latest one is published when
+ * the window closes.
+ * A transition published within the window supersedes the pending progress event, which is then dropped.
+ * Progress events still pending on shutdown are published right away, so the latest progress is not lost.</p>
+ */
 @Component
 class RequestStatusChangePublisher {
     private static final Logger logger = LoggerFactory.getLogger(RequestStatusChangePublisher.class);
 
     private final KafkaTemplate<String, RequestStatusChangeMessage> kafkaTemplate;
     private final RequestStatusChangeKafkaProperties kafkaProperties;
+    private final Duration coalesceWindow;
+    private final Map<Integer, RequestStatusChangeMessage> pendingProgress = new ConcurrentHashMap<>();
 
     RequestStatusChangePublisher(KafkaTemplate<String, RequestStatusChangeMessage> kafkaTemplate,
-                                        RequestStatusChangeKafkaProperties kafkaProperties) {
+                                 RequestStatusChangeKafkaProperties kafkaProperties,
+                                 RequestProgressProperties progressProperties) {
         this.kafkaTemplate = kafkaTemplate;
         this.kafkaProperties = kafkaProperties;
+        this.coalesceWindow = progressProperties.coalesceWindow();
     }
 
     void publishChange(int requestId, RequestStatus newStatus, PackingStatus packingStatus) {
-        RequestStatusChangeMessage payload = new RequestStatusChangeMessage(requestId, newStatus, packingStatus);
+        pendingProgress.remove(requestId);
+        send(new RequestStatusChangeMessage(requestId, newStatus, packingStatus));
+    }
+
+    /**
+     * Publishes the outcome of a status update, immediately if the status changed, coalesced with other progress
+     * of the same request otherwise.
+     *
+     * @param transition The status of the request before and after the update.
+     * @param packingStatus The packing status of the request after the update.
+     */
+    void publishTransition(RequestStatusTransition transition, PackingStatus packingStatus) {
+        if (transition.changed() || coalesceWindow.isZero()) {
+            publishChange(transition.requestId(), transition.status(), packingStatus);
+            return;
+        }
+        RequestStatusChangeMessage progress = new RequestStatusChangeMessage(transition.requestId(), transition.status(), packingStatus);
+        if (pendingProgress.put(transition.requestId(), progress) == null) {
+            Mono.delay(coalesceWindow)
+                    .subscribe(tick -> publishPendingProgress(transition.requestId()));
+        }
+    }
+
+    /**
+     * Publishes all progress events still waiting for their window to close and waits until they are sent.
+     */
+    @PreDestroy
+    void flushPendingProgress() {
+        pendingProgress.keySet().forEach(this::publishPendingProgress);
+        kafkaTemplate.flush();
+    }
+
+    private void publishPendingProgress(int requestId) {
+        RequestStatusChangeMessage progress = pendingProgress.remove(requestId);
+        if (progress != null) {
+            send(progress);
+        }
+    }
+
+    private void send(RequestStatusChangeMessage payload) {
         Message<RequestStatusChangeMessage> message = new GenericMessage<>(payload, kafkaProperties.kafkaHeaders());
-        logger.info("Notifying on request status update event: {} for the following request: {}", payload.getClass().getSimpleName(), requestId);
+        logger.info("Notifying on request status update event: {} for the following request: {}", payload.getClass().getSimpleName(), payload.requestId());
         kafkaTemplate.send(message);
     }
 }
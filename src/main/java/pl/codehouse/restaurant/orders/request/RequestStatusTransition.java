@@ -0,0 +1,24 @@
+package pl.codehouse.restaurant.orders.request;
+
+/**
+ * Represents the outcome of moving a request to the status derived from its prepared items.
+ *
+ * @param requestId The ID of the request.
+ * @param previousStatus The status of the request before the update.
+ * @param status The status of the request after the update.
+ */
+record RequestStatusTransition(
+        int requestId,
+        RequestStatus previousStatus,
+        RequestStatus status
+) {
+
+    /**
+     * Checks whether the status of the request changed, i.e. the request took a step of its lifecycle.
+     *
+     * @return true if the request moved to another status, false if only its progress changed.
+     */
+    boolean changed() {
+        return previousStatus.canTransitionTo(status);
+    }
+}
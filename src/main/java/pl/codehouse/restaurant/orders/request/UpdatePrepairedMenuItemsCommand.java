@@ -3,7 +3,7 @@ package pl.codehouse.restaurant.orders.request;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Component;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.reactive.TransactionalOperator;
 import pl.codehouse.commons.Command;
 import pl.codehouse.commons.Context;
 import pl.codehouse.commons.ExecutionResult;
@@ -14,46 +14,58 @@ import reactor.core.publisher.Mono;
  * Command for updating the prepared count of menu items in a request.
  * This component handles the business logic for updating the preparation status
  * of menu items and notifying about status changes.
+ * The status of the request is derived from its prepared and total item counters,
+ * which the database keeps in sync with the menu items, so the other menu items are never reloaded.
+ * The status is only written, and a status change only published right away, when the request lifecycle moves on;
+ * mere progress is published coalesced with other progress of the same request.
+ * The cached request is invalidated and the change published only once the transaction is committed,
+ * as the transactional Flux completes, and with it the single transition is emitted, only after the commit.
  */
 @Component
 class UpdatePrepairedMenuItemsCommand implements Command<UpdatePreparedMenuItemsDto, PackingStatus> {
     private static final Logger logger = LoggerFactory.getLogger(UpdatePrepairedMenuItemsCommand.class);
-    private final RequestRepository requestRepository;
-    private final RequestMenuItemRepository requestMenuItemRepository;
+    private final RequestBatchRepository requestBatchRepository;
     private final RequestStatusChangePublisher statusChangePublisher;
+    private final RequestCache requestCache;
+    private final TransactionalOperator transactionalOperator;
 
-    UpdatePrepairedMenuItemsCommand(RequestRepository requestRepository,
-                                    RequestMenuItemRepository requestMenuItemRepository,
-                                    RequestStatusChangePublisher statusChangePublisher) {
-        this.requestRepository = requestRepository;
-        this.requestMenuItemRepository = requestMenuItemRepository;
+    UpdatePrepairedMenuItemsCommand(RequestBatchRepository requestBatchRepository,
+                                    RequestStatusChangePublisher statusChangePublisher,
+                                    RequestCache requestCache,
+                                    TransactionalOperator transactionalOperator) {
+        this.requestBatchRepository = requestBatchRepository;
         this.statusChangePublisher = statusChangePublisher;
+        this.requestCache = requestCache;
+        this.transactionalOperator = transactionalOperator;
     }
 
     @Override
-    @Transactional
     public Mono<ExecutionResult<PackingStatus>> execute(Context<UpdatePreparedMenuItemsDto> context) {
         UpdatePreparedMenuItemsDto updateDto = context.request();
         int requestId = updateDto.requestId();
         logger.info("Updating request menu item prepared count: {}", updateDto);
-        return requestMenuItemRepository.findByRequestIdAndMenuItemId(requestId, updateDto.menuItemId())
-                .flatMap(requestMenuItem -> requestMenuItemRepository.save(requestMenuItem.withUpdatedPreparedCnt(updateDto.preparedQuantity())))
-                .flatMap(requestMenuItem -> requestMenuItemRepository.findByRequestId(requestId).collectList())
-                .flatMap(requestMenuItemEntities -> {
-                    logger.info("Checking Request Menu Item status -> {}", requestMenuItemEntities);
-                    boolean allItemsCollected = requestMenuItemEntities.stream().allMatch(RequestMenuItemEntity::isFinished);
-                    RequestStatus newStatus = allItemsCollected ? RequestStatus.READY_TO_COLLECT : RequestStatus.IN_PROGRESS;
-                    PackingStatus packingStatus = allItemsCollected ? PackingStatus.READY_TO_COLLECT : PackingStatus.IN_PROGRESS;
-
-                    return requestRepository.updateStatusById(requestId, newStatus)
-                            .then(notifyStatusChange(requestId, newStatus, packingStatus))
-                            .thenReturn(packingStatus);
-                })
-                .map(ExecutionResult::success);
+        return transactionalOperator.execute(transaction -> incrementAndTransition(updateDto))
+                .singleOrEmpty()
+                .map(transition -> {
+                    logger.info("Request {} status derived from item counters: {} -> {}", requestId, transition.previousStatus(), transition.status());
+                    requestCache.invalidate(requestId);
+                    PackingStatus packingStatus = transition.status() == RequestStatus.READY_TO_COLLECT
+                            ? PackingStatus.READY_TO_COLLECT
+                            : PackingStatus.IN_PROGRESS;
+                    statusChangePublisher.publishTransition(transition, packingStatus);
+                    return ExecutionResult.success(packingStatus);
+                });
     }
 
-    private Mono<Void> notifyStatusChange(int requestId, RequestStatus newStatus, PackingStatus packingStatus) {
-        statusChangePublisher.publishChange(requestId, newStatus, packingStatus);
-        return Mono.empty();
+    private Mono<RequestStatusTransition> incrementAndTransition(UpdatePreparedMenuItemsDto updateDto) {
+        int requestId = updateDto.requestId();
+        return requestBatchRepository.incrementPrepared(requestId, updateDto.menuItemId(), updateDto.preparedQuantity())
+                .doOnNext(update -> {
+                    if (update.overflowed()) {
+                        logger.warn("Ignoring {} prepared items of menu item {} in request {} exceeding the ordered quantity",
+                                update.overflow(), updateDto.menuItemId(), requestId);
+                    }
+                })
+                .flatMap(update -> requestBatchRepository.transitionStatusFromCounters(requestId));
     }
 }
@@ -0,0 +1,78 @@
+package pl.codehouse.restaurant.orders.request;
+
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import pl.codehouse.commons.Command;
+import pl.codehouse.commons.Context;
+import pl.codehouse.commons.ExecutionResult;
+import pl.codehouse.restaurant.orders.shelf.PackingStatus;
+import reactor.core.publisher.Mono;
+
+/**
+ * Command for updating the prepared counts of several menu items of a request at once,
+ * e.g. every menu item collected during a single packing pass.
+ * All prepared counts are increased with a single statement within one transaction, after which the request is moved
+ * once to the status derived from its item counters. The cached request is invalidated and a single status change
+ * is published only once the transaction is committed.
+ */
+@Component
+class UpdatePreparedMenuItemsBatchCommand implements Command<UpdatePreparedMenuItemsBatchDto, PackingStatus> {
+    private static final Logger logger = LoggerFactory.getLogger(UpdatePreparedMenuItemsBatchCommand.class);
+    private final RequestBatchRepository requestBatchRepository;
+    private final RequestStatusChangePublisher statusChangePublisher;
+    private final RequestCache requestCache;
+    private final TransactionalOperator transactionalOperator;
+
+    UpdatePreparedMenuItemsBatchCommand(RequestBatchRepository requestBatchRepository,
+                                        RequestStatusChangePublisher statusChangePublisher,
+                                        RequestCache requestCache,
+                                        TransactionalOperator transactionalOperator) {
+        this.requestBatchRepository = requestBatchRepository;
+        this.statusChangePublisher = statusChangePublisher;
+        this.requestCache = requestCache;
+        this.transactionalOperator = transactionalOperator;
+    }
+
+    @Override
+    public Mono<ExecutionResult<PackingStatus>> execute(Context<UpdatePreparedMenuItemsBatchDto> context) {
+        UpdatePreparedMenuItemsBatchDto updateDto = context.request();
+        int requestId = updateDto.requestId();
+        List<PreparedMenuItemDelta> deltas = mergedByMenuItem(updateDto.menuItems());
+        logger.info("Updating prepared count of {} menu items of request {}", deltas.size(), requestId);
+        return transactionalOperator.execute(transaction -> incrementAndTransition(requestId, deltas))
+                .singleOrEmpty()
+                .map(transition -> {
+                    logger.info("Request {} status derived from item counters: {} -> {}", requestId, transition.previousStatus(), transition.status());
+                    requestCache.invalidate(requestId);
+                    PackingStatus packingStatus = transition.status() == RequestStatus.READY_TO_COLLECT
+                            ? PackingStatus.READY_TO_COLLECT
+                            : PackingStatus.IN_PROGRESS;
+                    statusChangePublisher.publishTransition(transition, packingStatus);
+                    return ExecutionResult.success(packingStatus);
+                });
+    }
+
+    private Mono<RequestStatusTransition> incrementAndTransition(int requestId, List<PreparedMenuItemDelta> deltas) {
+        return requestBatchRepository.incrementPrepared(requestId, deltas)
+                .doOnNext(update -> {
+                    if (update.overflowed()) {
+                        logger.warn("Ignoring {} prepared items of menu item {} in request {} exceeding the ordered quantity",
+                                update.overflow(), update.menuItem().menuItemId(), requestId);
+                    }
+                })
+                .then(Mono.defer(() -> requestBatchRepository.transitionStatusFromCounters(requestId)));
+    }
+
+    private static List<PreparedMenuItemDelta> mergedByMenuItem(List<PreparedMenuItemDelta> deltas) {
+        Map<Integer, Integer> quantitiesByMenuItem = deltas.stream()
+                .collect(Collectors.groupingBy(PreparedMenuItemDelta::menuItemId, Collectors.summingInt(PreparedMenuItemDelta::preparedQuantity)));
+        return quantitiesByMenuItem.entrySet().stream()
+                .map(entry -> new PreparedMenuItemDelta(entry.getKey(), entry.getValue()))
+                .toList();
+    }
+}
@@ -0,0 +1,15 @@
+package pl.codehouse.restaurant.orders.request;
+
+import java.util.List;
+
+/**
+ * Data Transfer Object (DTO) for updating the prepared quantities of several menu items of a request at once.
+ *
+ * @param requestId The ID of the request.
+ * @param menuItems The numbers of additionally prepared items, per menu item.
+ */
+record UpdatePreparedMenuItemsBatchDto(
+        int requestId,
+        List<PreparedMenuItemDelta> menuItems
+) {
+}
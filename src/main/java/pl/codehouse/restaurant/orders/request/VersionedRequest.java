@@ -0,0 +1,13 @@
+package pl.codehouse.restaurant.orders.request;
+
+/**
+ * Represents a request together with the version it had when it was read.
+ *
+ * @param request The request.
+ * @param version The version of the request, read by the same statement as the request itself.
+ */
+public record VersionedRequest(
+        RequestDto request,
+        int version
+) {
+}
@@ -0,0 +1,66 @@
+package pl.codehouse.restaurant.orders.shelf;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.SignalType;
+import reactor.core.publisher.Sinks;
+
+/**
+ * Runs reactive work of the same request strictly one after another, while work of different requests runs in parallel.
+ *
+ * <p>Every request with pending work has its own lane, holding only the completion signal of its most recently
+ * submitted work. A new work is chained behind that signal and becomes the new tail of the lane, so work is run
+ * in the order it was subscribed to, regardless of whether the previous work succeeded, failed or was cancelled.
+ * A work cancelled before its turn signals its completion only once the work before it has finished, so the work
+ * after it never overlaps with the work before it.
+ * A lane is removed as soon as its last work finishes, so idle requests occupy no memory. Lanes are swapped
+ * atomically per key, there is no lock shared between requests. The number of lanes is exposed as the
+ * {@code packing.lanes.active} gauge.</p>
+ */
+@Component
+class KeyedSerialExecutor {
+    private final Map<Integer, Sinks.Empty<Void>> lanes = new ConcurrentHashMap<>();
+
+    KeyedSerialExecutor(MeterRegistry meterRegistry) {
+        Gauge.builder("packing.lanes.active", lanes, Map::size)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Runs the given work once all previously subscribed work of the same request has finished.
+     *
+     * @param requestId The ID of the request the work belongs to.
+     * @param work      The supplier of the work, invoked when it is the turn of the work.
+     * @param <T>       The type of the work result.
+     * @return A Mono emitting the result of the work.
+     */
+    <T> Mono<T> execute(int requestId, Supplier<Mono<T>> work) {
+        return Mono.defer(() -> {
+            Sinks.Empty<Void> done = Sinks.empty();
+            Sinks.Empty<Void> previous = lanes.put(requestId, done);
+            Mono<Void> turn = previous == null ? Mono.empty() : previous.asMono();
+            return turn.then(Mono.defer(work))
+                    .doFinally(signal -> {
+                        if (signal == SignalType.CANCEL) {
+                            turn.doOnTerminate(() -> release(requestId, done)).subscribe();
+                        } else {
+                            release(requestId, done);
+                        }
+                    });
+        });
+    }
+
+    private void release(int requestId, Sinks.Empty<Void> done) {
+        lanes.remove(requestId, done);
+        done.tryEmitEmpty();
+    }
+
+    int activeLanes() {
+        return lanes.size();
+    }
+}
@@ -6,10 +6,10 @@ import pl.codehouse.commons.Command;
 import pl.codehouse.commons.Context;
 import pl.codehouse.commons.ExecutionResult;
 import pl.codehouse.restaurant.orders.request.PackingActionResult;
+import pl.codehouse.restaurant.orders.request.PreparedMenuItemDelta;
 import pl.codehouse.restaurant.orders.request.RequestDto;
 import pl.codehouse.restaurant.orders.request.RequestMenuItem;
 import pl.codehouse.restaurant.orders.request.RequestService;
-import pl.codehouse.restaurant.orders.request.UpdatePreparedMenuItemsDto;
 import reactor.core.publisher.Mono;
 import reactor.util.function.Tuple2;
 import reactor.util.function.Tuples;
@@ -32,24 +32,21 @@ class PackingCommand implements Command<Integer, PackingActionResult> {
         Integer requestId = context.request();
         logger.info("Starting collecting requested menu items for request id: {}", requestId);
 
-        return requestService.findById(requestId)
+        return requestService.findCurrentById(requestId)
                 .flatMapIterable(RequestDto::menuItems)
                 .filter(RequestMenuItem::notFinished)
                 .doOnNext(signal -> logger.info("Searching for following item on shelf -> {}", signal))
                 .flatMap(this::mapShelfTakeResultStatusBasedOnRequestedMenuItem)
-                .flatMap(itemStatus -> updatePreparedMenuItems(requestId, itemStatus))
-                .then(requestService.findById(requestId).map(this::fromRequest))
+                .filter(itemStatus -> itemStatus.getT2().itemsTakenFromShelf() > 0)
+                .map(PackingCommand::toPreparedMenuItemDelta)
+                .collectList()
+                .flatMap(deltas -> requestService.updateCollectedItems(requestId, deltas))
+                .map(this::fromRequest)
                 .map(ExecutionResult::success);
     }
 
-    private Mono<RequestDto> updatePreparedMenuItems(int requestId, Tuple2<RequestMenuItem, ShelfTakeResult> itemStatus) {
-        RequestMenuItem requestMenuItem = itemStatus.getT1();
-        ShelfTakeResult shelfTakeResult = itemStatus.getT2();
-        if (shelfTakeResult.itemsTakenFromShelf() == 0) {
-            return Mono.empty();
-        }
-        return requestService.updateCollectedItems(
-                new UpdatePreparedMenuItemsDto(requestId, requestMenuItem.menuItemId(), shelfTakeResult.itemsTakenFromShelf()));
+    private static PreparedMenuItemDelta toPreparedMenuItemDelta(Tuple2<RequestMenuItem, ShelfTakeResult> itemStatus) {
+        return new PreparedMenuItemDelta(itemStatus.getT1().menuItemId(), itemStatus.getT2().itemsTakenFromShelf());
     }
 
     private Mono<Tuple2<RequestMenuItem, ShelfTakeResult>> mapShelfTakeResultStatusBasedOnRequestedMenuItem(RequestMenuItem missingItem) {
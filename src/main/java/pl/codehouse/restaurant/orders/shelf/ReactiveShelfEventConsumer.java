@@ -0,0 +1,128 @@
+package pl.codehouse.restaurant.orders.shelf;
+
+import jakarta.annotation.PreDestroy;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.kafka.KafkaProperties;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.kafka.support.serializer.JsonDeserializer;
+import org.springframework.stereotype.Component;
+import pl.codehouse.commons.Context;
+import pl.codehouse.commons.ExecutionResult;
+import pl.codehouse.restaurant.orders.request.ShelfEventDto;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.kafka.receiver.KafkaReceiver;
+import reactor.kafka.receiver.ReceiverOptions;
+import reactor.kafka.receiver.ReceiverRecord;
+import reactor.util.retry.Retry;
+
+/**
+ * Consumes shelf events with a reactive Kafka receiver, as an alternative to the {@link ShelfEventListener}.
+ *
+ * <p>Records are spread over the configured number of lanes by their partition, every partition always landing in the same
+ * lane. Each lane packs its records one after another, so records of a partition are processed in order, while at most
+ * the configured number of records is packed at the same time. The receiver only polls more records once the lanes
+ * request them, so bursts are held back in the broker rather than flooding the database connection pool.</p>
+ *
+ * <p>The offset of a record is acknowledged only once its packing succeeded, and acknowledged offsets are committed in
+ * batches, so records still being packed on shutdown are delivered again after a restart. A failed packing is retried
+ * with an exponential backoff. Once the retries are exhausted the record is left unacknowledged and the consumption is
+ * restarted from the last committed offset, so the record is delivered again instead of being lost.</p>
+ */
+@Component
+@ConditionalOnProperty(value = "app.shelf.reactive-consumer.enabled", havingValue = "true")
+class ReactiveShelfEventConsumer {
+    private static final Logger logger = LoggerFactory.getLogger(ReactiveShelfEventConsumer.class);
+    private static final Duration RECEIVE_RETRY_BACKOFF = Duration.ofSeconds(1);
+
+    private final PackingCommand packingCommand;
+    private final KeyedSerialExecutor requestLanes;
+    private final ShelfReactiveConsumerProperties properties;
+    private final KafkaReceiver<String, ShelfEventDto> receiver;
+    private Disposable consumption;
+
+    ReactiveShelfEventConsumer(PackingCommand packingCommand,
+                               KeyedSerialExecutor requestLanes,
+                               KafkaProperties kafkaProperties,
+                               ShelfKafkaProperties shelfKafkaProperties,
+                               ShelfReactiveConsumerProperties properties) {
+        this.packingCommand = packingCommand;
+        this.requestLanes = requestLanes;
+        this.properties = properties;
+
+        Map<String, Object> consumerProperties = new HashMap<>(kafkaProperties.buildConsumerProperties(null));
+        consumerProperties.put(JsonDeserializer.VALUE_DEFAULT_TYPE, ShelfEventDto.class.getName());
+        consumerProperties.put(JsonDeserializer.USE_TYPE_INFO_HEADERS, false);
+        ReceiverOptions<String, ShelfEventDto> receiverOptions = ReceiverOptions.<String, ShelfEventDto>create(consumerProperties)
+                .subscription(List.of(shelfKafkaProperties.topicName()))
+                .commitInterval(properties.commitInterval())
+                .commitBatchSize(properties.commitBatchSize())
+                .addAssignListener(partitions -> logger.info("Shelf event partitions assigned: {}", partitions))
+                .addRevokeListener(partitions -> logger.info("Shelf event partitions revoked: {}", partitions));
+        this.receiver = KafkaReceiver.create(receiverOptions);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    void start() {
+        consumption = consume(receiver.receive())
+                .retryWhen(Retry.backoff(Long.MAX_VALUE, RECEIVE_RETRY_BACKOFF)
+                        .doBeforeRetry(signal -> logger.warn("Shelf event consumption failed, resubscribing", signal.failure())))
+                .subscribe();
+    }
+
+    @PreDestroy
+    void shutdown() {
+        if (consumption != null) {
+            consumption.dispose();
+        }
+    }
+
+    /**
+     * Packs the given records with bounded concurrency, keeping the order of records of the same partition.
+     *
+     * @param records The received shelf event records.
+     * @return A Mono completing once all records are packed and acknowledged, or failing once the packing of a record
+     *         failed after all retries.
+     */
+    Mono<Void> consume(Flux<ReceiverRecord<String, ShelfEventDto>> records) {
+        int concurrency = properties.concurrency();
+        return records
+                .groupBy(record -> record.partition() % concurrency)
+                .flatMap(lane -> lane.concatMap(this::process), concurrency)
+                .then();
+    }
+
+    private Mono<Void> process(ReceiverRecord<String, ShelfEventDto> record) {
+        return pack(record.value())
+                .retryWhen(Retry.backoff(properties.packingRetries(), properties.packingBackoff())
+                        .doBeforeRetry(signal -> logger.warn("Retrying packing of shelf event at offset {} of partition {}",
+                                record.offset(),
+                                record.partition())))
+                .then(Mono.fromRunnable(record.receiverOffset()::acknowledge));
+    }
+
+    private Mono<Void> pack(ShelfEventDto event) {
+        if (event == null || event.requestId() == null) {
+            logger.warn("Skipping shelf event without request: {}", event);
+            return Mono.empty();
+        }
+        logger.info("Received shelf event: {}", event);
+        return requestLanes.execute(event.requestId(), () -> packingCommand.execute(new Context<>(event.requestId())))
+                .map(ExecutionResult::handle)
+                .doOnSuccess(result -> logger.info("Packing command for the following request:{} finished with the following:{}", event.requestId(), result))
+                .doOnError(error -> logger.error("Error while processing packing command for request: {}. Error:{}",
+                        event.requestId(),
+                        error.getMessage(),
+                        error)
+                )
+                .then();
+    }
+}
@@ -2,6 +2,7 @@ package pl.codehouse.restaurant.orders.shelf;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.kafka.annotation.KafkaListener;
 import org.springframework.stereotype.Component;
 import pl.codehouse.commons.Context;
@@ -9,21 +10,24 @@ import pl.codehouse.commons.ExecutionResult;
 import pl.codehouse.restaurant.orders.request.ShelfEventDto;
 
 @Component
+@ConditionalOnProperty(value = "app.shelf.reactive-consumer.enabled", havingValue = "false", matchIfMissing = true)
 class ShelfEventListener {
 
     private static final Logger logger = LoggerFactory.getLogger(ShelfEventListener.class);
 
     private final PackingCommand packingCommand;
+    private final KeyedSerialExecutor requestLanes;
 
-    ShelfEventListener(PackingCommand packingCommand) {
+    ShelfEventListener(PackingCommand packingCommand, KeyedSerialExecutor requestLanes) {
         this.packingCommand = packingCommand;
+        this.requestLanes = requestLanes;
     }
 
     @KafkaListener(topics = "${app.kafka.shelf.topic.topic-name}", groupId = "${spring.kafka.consumer.group-id}")
     public void listen(ShelfEventDto event) {
         logger.info("Received shelf event: {}", event);
-        // Add your event processing logic here
-        packingCommand.execute(new Context<Integer>(event.requestId()))
+        // Events of the same request are packed one after another, so they never race on its menu items and the shelf
+        requestLanes.execute(event.requestId(), () -> packingCommand.execute(new Context<Integer>(event.requestId())))
                 .map(ExecutionResult::handle)
                 .doOnSuccess(result -> logger.info("Packing command for the following request:{} finished with the following:{}", event.requestId(), result))
                 .doOnError(error -> logger.error("Error while processing packing command for request: {}. Error:{}",
@@ -0,0 +1,44 @@
+package pl.codehouse.restaurant.orders.shelf;
+
+import java.time.Duration;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Configuration properties of the reactive consumer of shelf events.
+ *
+ * <p>The properties are loaded from the application's configuration
+ * file using the prefix "app.shelf.reactive-consumer".</p>
+ *
+ * @param concurrency     The maximum number of shelf events packed at the same time.
+ * @param commitInterval  The longest time offsets of processed shelf events wait before they are committed.
+ * @param commitBatchSize The number of processed shelf events after which their offsets are committed right away.
+ * @param packingRetries  The number of times a failed packing is retried before the consumption is restarted from the
+ *                        last committed offset.
+ * @param packingBackoff  The delay before the first retry of a failed packing, doubled with every further retry.
+ */
+@ConfigurationProperties("app.shelf.reactive-consumer")
+public record ShelfReactiveConsumerProperties(
+        int concurrency,
+        Duration commitInterval,
+        int commitBatchSize,
+        int packingRetries,
+        Duration packingBackoff
+) {
+    /**
+     * Creates a new ShelfReactiveConsumerProperties instance.
+     */
+    public ShelfReactiveConsumerProperties {
+        if (concurrency <= 0 || commitBatchSize <= 0) {
+            throw new IllegalArgumentException("Shelf consumer concurrency and commit batch size must be greater than zero");
+        }
+        if (commitInterval == null || commitInterval.isNegative() || commitInterval.isZero()) {
+            throw new IllegalArgumentException("Shelf consumer commit interval must be a positive duration");
+        }
+        if (packingRetries < 0) {
+            throw new IllegalArgumentException("Shelf consumer packing retries cannot be negative");
+        }
+        if (packingBackoff == null || packingBackoff.isNegative() || packingBackoff.isZero()) {
+            throw new IllegalArgumentException("Shelf consumer packing backoff must be a positive duration");
+        }
+    }
+}
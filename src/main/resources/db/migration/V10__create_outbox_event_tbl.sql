@@ -0,0 +1,11 @@
+-- Migration script for creating the transactional outbox of events awaiting delivery to Kafka
+CREATE SEQUENCE outbox_event_id_seq START WITH 1;
+
+CREATE TABLE outbox_event
+(
+    id          BIGINT PRIMARY KEY DEFAULT NEXTVAL('outbox_event_id_seq'),
+    event_type  TEXT      NOT NULL,
+    aggregate_id INT       NOT NULL,
+    payload     TEXT      NOT NULL,
+    created_at  TIMESTAMP NOT NULL DEFAULT NOW()
+);
@@ -0,0 +1,5 @@
+-- Client supplied key deduplicating retried request creations
+ALTER TABLE "request"
+    ADD COLUMN idempotency_key TEXT;
+
+CREATE UNIQUE INDEX request_idempotency_key_uidx ON "request" (idempotency_key) WHERE idempotency_key IS NOT NULL;
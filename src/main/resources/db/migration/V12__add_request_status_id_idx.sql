@@ -0,0 +1,2 @@
+-- Index serving keyset pagination of requests filtered by status and ordered by id
+CREATE INDEX request_status_id_idx ON "request" (status, id);
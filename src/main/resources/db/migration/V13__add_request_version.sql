@@ -0,0 +1,3 @@
+-- Version of a request, incremented on every change and exposed as the ETag of the request
+ALTER TABLE "request"
+    ADD COLUMN version INT NOT NULL DEFAULT 0;
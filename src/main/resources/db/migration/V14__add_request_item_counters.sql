@@ -0,0 +1,66 @@
+-- Materialized prepared and total item counters of a request, kept in sync with request_menu_item by a trigger
+ALTER TABLE "request"
+    ADD COLUMN prepared_count INT NOT NULL DEFAULT 0,
+    ADD COLUMN total_count    INT NOT NULL DEFAULT 0;
+
+UPDATE "request" r
+SET prepared_count = c.prepared,
+    total_count    = c.quantity
+FROM (SELECT request_id, SUM(prepared) AS prepared, SUM(quantity) AS quantity
+      FROM request_menu_item
+      GROUP BY request_id) c
+WHERE c.request_id = r.id;
+
+-- Applies the net change of all rows touched by a statement with one update per affected request
+CREATE FUNCTION request_menu_item_counters() RETURNS TRIGGER AS
+$$
+BEGIN
+    IF TG_OP = 'INSERT' THEN
+        UPDATE "request" r
+        SET prepared_count = r.prepared_count + c.prepared,
+            total_count    = r.total_count + c.quantity
+        FROM (SELECT request_id, SUM(prepared) AS prepared, SUM(quantity) AS quantity
+              FROM new_items
+              GROUP BY request_id) c
+        WHERE c.request_id = r.id;
+    ELSIF TG_OP = 'UPDATE' THEN
+        UPDATE "request" r
+        SET prepared_count = r.prepared_count + c.prepared,
+            total_count    = r.total_count + c.quantity
+        FROM (SELECT request_id, SUM(prepared) AS prepared, SUM(quantity) AS quantity
+              FROM (SELECT request_id, prepared, quantity FROM new_items
+                    UNION ALL
+                    SELECT request_id, -prepared, -quantity FROM old_items) d
+              GROUP BY request_id) c
+        WHERE c.request_id = r.id
+          AND (c.prepared <> 0 OR c.quantity <> 0);
+    ELSE
+        UPDATE "request" r
+        SET prepared_count = r.prepared_count - c.prepared,
+            total_count    = r.total_count - c.quantity
+        FROM (SELECT request_id, SUM(prepared) AS prepared, SUM(quantity) AS quantity
+              FROM old_items
+              GROUP BY request_id) c
+        WHERE c.request_id = r.id;
+    END IF;
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE TRIGGER request_menu_item_inserted_trg
+    AFTER INSERT ON request_menu_item
+    REFERENCING NEW TABLE AS new_items
+    FOR EACH STATEMENT
+EXECUTE FUNCTION request_menu_item_counters();
+
+CREATE TRIGGER request_menu_item_updated_trg
+    AFTER UPDATE ON request_menu_item
+    REFERENCING OLD TABLE AS old_items NEW TABLE AS new_items
+    FOR EACH STATEMENT
+EXECUTE FUNCTION request_menu_item_counters();
+
+CREATE TRIGGER request_menu_item_deleted_trg
+    AFTER DELETE ON request_menu_item
+    REFERENCING OLD TABLE AS old_items
+    FOR EACH STATEMENT
+EXECUTE FUNCTION request_menu_item_counters();
@@ -0,0 +1,111 @@
+-- Migration script converting request and request_menu_item into tables range partitioned by creation day.
+-- Primary and unique keys of partitioned tables must contain the partition key, so:
+--  * idempotency keys move to a dedicated table to stay unique across all partitions,
+--  * the foreign key from request_menu_item to request is dropped, both rows are always written together
+--    within one transaction, which also gives them the same created_at.
+
+CREATE TABLE request_idempotency_key
+(
+    idempotency_key TEXT PRIMARY KEY,
+    request_id      INT       NOT NULL,
+    created_at      TIMESTAMP NOT NULL DEFAULT NOW()
+);
+
+INSERT INTO request_idempotency_key (idempotency_key, request_id)
+SELECT idempotency_key, id
+FROM "request"
+WHERE idempotency_key IS NOT NULL;
+
+ALTER TABLE "request" RENAME TO request_unpartitioned;
+ALTER TABLE request_menu_item RENAME TO request_menu_item_unpartitioned;
+ALTER INDEX request_pkey RENAME TO request_unpartitioned_pkey;
+
+CREATE TABLE "request"
+(
+    id             INT       NOT NULL DEFAULT NEXTVAL('order_id_seq'),
+    customer_id    INT       NOT NULL,
+    status         TEXT      NOT NULL DEFAULT 'NEW',
+    version        INT       NOT NULL DEFAULT 0,
+    prepared_count INT       NOT NULL DEFAULT 0,
+    total_count    INT       NOT NULL DEFAULT 0,
+    created_at     TIMESTAMP NOT NULL DEFAULT NOW(),
+    PRIMARY KEY (id, created_at)
+) PARTITION BY RANGE (created_at);
+
+CREATE TABLE request_menu_item
+(
+    id           INT       NOT NULL DEFAULT NEXTVAL('request_menu_item_id_seq'),
+    request_id   INT       NOT NULL,
+    menu_item_id INT       NOT NULL REFERENCES menu_item (id) ON DELETE CASCADE,
+    quantity     INT       NOT NULL DEFAULT 0,
+    prepared     INT       NOT NULL DEFAULT 0,
+    immediate    BOOLEAN   NOT NULL DEFAULT false,
+    created_at   TIMESTAMP NOT NULL DEFAULT NOW(),
+    PRIMARY KEY (id, created_at)
+) PARTITION BY RANGE (created_at);
+
+-- Rows created before or after the range of any daily partition, kept empty as long as partitions are created ahead of time
+CREATE TABLE request_default PARTITION OF "request" DEFAULT;
+CREATE TABLE request_menu_item_default PARTITION OF request_menu_item DEFAULT;
+
+-- Creates the daily partitions of both tables for the given number of days starting today, skipping existing ones
+CREATE FUNCTION create_request_partitions(days_ahead INT) RETURNS INT AS
+$$
+DECLARE
+    partition_day DATE;
+    created       INT := 0;
+BEGIN
+    FOR day_offset IN 0..days_ahead
+        LOOP
+            partition_day := CURRENT_DATE + day_offset;
+            IF to_regclass('request_' || to_char(partition_day, 'YYYYMMDD')) IS NULL THEN
+                EXECUTE format('CREATE TABLE %I PARTITION OF "request" FOR VALUES FROM (%L) TO (%L)',
+                               'request_' || to_char(partition_day, 'YYYYMMDD'), partition_day, partition_day + 1);
+                EXECUTE format('CREATE TABLE %I PARTITION OF request_menu_item FOR VALUES FROM (%L) TO (%L)',
+                               'request_menu_item_' || to_char(partition_day, 'YYYYMMDD'), partition_day, partition_day + 1);
+                created := created + 1;
+            END IF;
+        END LOOP;
+    RETURN created;
+END;
+$$ LANGUAGE plpgsql;
+
+SELECT create_request_partitions(7);
+
+-- The unpartitioned tables never recorded when their rows were created. Instead of stamping the whole history
+-- with the day of this migration, which would put it into the partition of that day, the copied rows keep a fixed
+-- creation time before any daily partition and stay in a legacy partition of their own
+CREATE TABLE request_legacy PARTITION OF "request" FOR VALUES FROM (MINVALUE) TO (CURRENT_DATE);
+CREATE TABLE request_menu_item_legacy PARTITION OF request_menu_item FOR VALUES FROM (MINVALUE) TO (CURRENT_DATE);
+
+INSERT INTO "request" (id, customer_id, status, version, prepared_count, total_count, created_at)
+SELECT id, customer_id, status, version, prepared_count, total_count, TIMESTAMP '1970-01-01'
+FROM request_unpartitioned;
+
+INSERT INTO request_menu_item (id, request_id, menu_item_id, quantity, prepared, immediate, created_at)
+SELECT id, request_id, menu_item_id, quantity, prepared, immediate, TIMESTAMP '1970-01-01'
+FROM request_menu_item_unpartitioned;
+
+DROP TABLE request_menu_item_unpartitioned;
+DROP TABLE request_unpartitioned;
+
+CREATE INDEX request_status_id_idx ON "request" (status, id);
+CREATE INDEX request_menu_item_request_id_idx ON request_menu_item (request_id, menu_item_id);
+
+CREATE TRIGGER request_menu_item_inserted_trg
+    AFTER INSERT ON request_menu_item
+    REFERENCING NEW TABLE AS new_items
+    FOR EACH STATEMENT
+EXECUTE FUNCTION request_menu_item_counters();
+
+CREATE TRIGGER request_menu_item_updated_trg
+    AFTER UPDATE ON request_menu_item
+    REFERENCING OLD TABLE AS old_items NEW TABLE AS new_items
+    FOR EACH STATEMENT
+EXECUTE FUNCTION request_menu_item_counters();
+
+CREATE TRIGGER request_menu_item_deleted_trg
+    AFTER DELETE ON request_menu_item
+    REFERENCING OLD TABLE AS old_items
+    FOR EACH STATEMENT
+EXECUTE FUNCTION request_menu_item_counters();
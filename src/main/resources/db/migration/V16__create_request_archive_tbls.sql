@@ -0,0 +1,28 @@
+-- Migration script for creating the cold storage of finished requests moved out of the partitioned tables
+CREATE TABLE request_archive
+(
+    id             INT PRIMARY KEY,
+    customer_id    INT       NOT NULL,
+    status         TEXT      NOT NULL,
+    version        INT       NOT NULL,
+    prepared_count INT       NOT NULL,
+    total_count    INT       NOT NULL,
+    created_at     TIMESTAMP NOT NULL,
+    archived_at    TIMESTAMP NOT NULL DEFAULT NOW()
+);
+
+CREATE TABLE request_menu_item_archive
+(
+    id           INT PRIMARY KEY,
+    request_id   INT       NOT NULL,
+    menu_item_id INT       NOT NULL,
+    quantity     INT       NOT NULL,
+    prepared     INT       NOT NULL,
+    immediate    BOOLEAN   NOT NULL,
+    created_at   TIMESTAMP NOT NULL
+);
+
+CREATE INDEX request_menu_item_archive_request_id_idx ON request_menu_item_archive (request_id);
+
+-- Serves the lookup of requests old enough to be archived
+CREATE INDEX request_status_created_at_idx ON "request" (status, created_at);
@@ -0,0 +1,36 @@
+-- Status of a request is only written when it actually changes, so progress of its menu items bumps the version instead
+CREATE OR REPLACE FUNCTION request_menu_item_counters() RETURNS TRIGGER AS
+$$
+BEGIN
+    IF TG_OP = 'INSERT' THEN
+        UPDATE "request" r
+        SET prepared_count = r.prepared_count + c.prepared,
+            total_count    = r.total_count + c.quantity
+        FROM (SELECT request_id, SUM(prepared) AS prepared, SUM(quantity) AS quantity
+              FROM new_items
+              GROUP BY request_id) c
+        WHERE c.request_id = r.id;
+    ELSIF TG_OP = 'UPDATE' THEN
+        UPDATE "request" r
+        SET prepared_count = r.prepared_count + c.prepared,
+            total_count    = r.total_count + c.quantity,
+            version        = r.version + 1
+        FROM (SELECT request_id, SUM(prepared) AS prepared, SUM(quantity) AS quantity
+              FROM (SELECT request_id, prepared, quantity FROM new_items
+                    UNION ALL
+                    SELECT request_id, -prepared, -quantity FROM old_items) d
+              GROUP BY request_id) c
+        WHERE c.request_id = r.id
+          AND (c.prepared <> 0 OR c.quantity <> 0);
+    ELSE
+        UPDATE "request" r
+        SET prepared_count = r.prepared_count - c.prepared,
+            total_count    = r.total_count - c.quantity
+        FROM (SELECT request_id, SUM(prepared) AS prepared, SUM(quantity) AS quantity
+              FROM old_items
+              GROUP BY request_id) c
+        WHERE c.request_id = r.id;
+    END IF;
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
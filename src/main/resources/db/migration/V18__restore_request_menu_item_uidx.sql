@@ -0,0 +1,6 @@
+-- Restores the uniqueness of a menu item within a request, lost when request_menu_item was partitioned.
+-- Unique indexes of a partitioned table must contain the partition key, and both rows of a request are always
+-- written within one transaction with the same created_at, so the key below is as strict as the former one.
+CREATE UNIQUE INDEX request_menu_item_request_id_uidx ON request_menu_item (request_id, menu_item_id, created_at);
+
+DROP INDEX request_menu_item_request_id_idx;
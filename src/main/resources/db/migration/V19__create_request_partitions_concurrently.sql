@@ -0,0 +1,39 @@
+-- Creates the partition of the given day, moving the rows of that day out of the default partition first
+CREATE FUNCTION attach_request_partition(parent_table TEXT, default_table TEXT, partition_day DATE) RETURNS VOID AS
+$$
+DECLARE
+    partition_table TEXT := parent_table || '_' || to_char(partition_day, 'YYYYMMDD');
+BEGIN
+    EXECUTE format('CREATE TABLE IF NOT EXISTS %I (LIKE %I INCLUDING DEFAULTS)', partition_table, parent_table);
+    EXECUTE format('WITH moved AS (DELETE FROM %I WHERE created_at >= %L AND created_at < %L RETURNING *) INSERT INTO %I SELECT * FROM moved',
+                   default_table, partition_day, partition_day + 1, partition_table);
+    EXECUTE format('ALTER TABLE %I ATTACH PARTITION %I FOR VALUES FROM (%L) TO (%L)',
+                   parent_table, partition_table, partition_day, partition_day + 1);
+END;
+$$ LANGUAGE plpgsql;
+
+-- Creates the daily partitions of both tables for the given number of days starting today, skipping existing ones.
+-- Instances of the service run this function concurrently, so the whole run is serialized with a transaction scoped
+-- advisory lock, making the existence check and the creation of a partition atomic.
+-- Rows of a day may already sit in the default partition, e.g. when partition maintenance was not running for a while,
+-- which would make creating the partition of that day fail. The partition is therefore created as a standalone table,
+-- filled with the rows of its day moved out of the default partition, and only then attached.
+CREATE OR REPLACE FUNCTION create_request_partitions(days_ahead INT) RETURNS INT AS
+$$
+DECLARE
+    partition_day DATE;
+    created       INT := 0;
+BEGIN
+    PERFORM pg_advisory_xact_lock(hashtext('create_request_partitions'));
+    FOR day_offset IN 0..days_ahead
+        LOOP
+            partition_day := CURRENT_DATE + day_offset;
+            IF to_regclass('request_' || to_char(partition_day, 'YYYYMMDD')) IS NULL THEN
+                PERFORM attach_request_partition('request', 'request_default', partition_day);
+                PERFORM attach_request_partition('request_menu_item', 'request_menu_item_default', partition_day);
+                created := created + 1;
+            END IF;
+        END LOOP;
+    RETURN created;
+END;
+$$ LANGUAGE plpgsql;
@@ -0,0 +1,138 @@
+-- Creation time of every request of the partitioned tables, keyed by request ID only.
+-- Statements looking requests up by ID read the creation time from here first, so they are pruned to the partition
+-- of that day instead of probing every partition. Rows are kept in sync with "request" by the triggers below.
+CREATE TABLE request_partition_key
+(
+    id         INT PRIMARY KEY,
+    created_at TIMESTAMP NOT NULL
+);
+
+INSERT INTO request_partition_key (id, created_at)
+SELECT id, created_at
+FROM "request";
+
+CREATE FUNCTION request_partition_keys() RETURNS TRIGGER AS
+$$
+BEGIN
+    IF TG_OP = 'INSERT' THEN
+        INSERT INTO request_partition_key (id, created_at)
+        SELECT id, created_at
+        FROM new_requests;
+    ELSE
+        DELETE FROM request_partition_key k
+        USING old_requests o
+        WHERE k.id = o.id;
+    END IF;
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE FUNCTION request_partition_key_moved() RETURNS TRIGGER AS
+$$
+BEGIN
+    UPDATE request_partition_key
+    SET created_at = NEW.created_at
+    WHERE id = NEW.id;
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE TRIGGER request_inserted_trg
+    AFTER INSERT ON "request"
+    REFERENCING NEW TABLE AS new_requests
+    FOR EACH STATEMENT
+EXECUTE FUNCTION request_partition_keys();
+
+CREATE TRIGGER request_deleted_trg
+    AFTER DELETE ON "request"
+    REFERENCING OLD TABLE AS old_requests
+    FOR EACH STATEMENT
+EXECUTE FUNCTION request_partition_keys();
+
+-- Transition tables are not allowed for triggers on a column list, so the rare change of created_at is tracked per row
+CREATE TRIGGER request_created_at_updated_trg
+    AFTER UPDATE OF created_at ON "request"
+    FOR EACH ROW
+    WHEN (OLD.created_at IS DISTINCT FROM NEW.created_at)
+EXECUTE FUNCTION request_partition_key_moved();
+
+-- Menu items are created together with their request, so the day of a menu item is the day of its request.
+-- Every update of the counters is limited to that day, which prunes it to a single partition of "request".
+CREATE OR REPLACE FUNCTION request_menu_item_counters() RETURNS TRIGGER AS
+$$
+BEGIN
+    IF TG_OP = 'INSERT' THEN
+        UPDATE "request" r
+        SET prepared_count = r.prepared_count + c.prepared,
+            total_count    = r.total_count + c.quantity
+        FROM (SELECT request_id, MIN(date_trunc('day', created_at)) AS created_on, SUM(prepared) AS prepared, SUM(quantity) AS quantity
+              FROM new_items
+              GROUP BY request_id) c
+        WHERE c.request_id = r.id
+          AND r.created_at >= c.created_on AND r.created_at < c.created_on + INTERVAL '1 day';
+    ELSIF TG_OP = 'UPDATE' THEN
+        UPDATE "request" r
+        SET prepared_count = r.prepared_count + c.prepared,
+            total_count    = r.total_count + c.quantity,
+            version        = r.version + 1
+        FROM (SELECT request_id, MIN(date_trunc('day', created_at)) AS created_on, SUM(prepared) AS prepared, SUM(quantity) AS quantity
+              FROM (SELECT request_id, created_at, prepared, quantity FROM new_items
+                    UNION ALL
+                    SELECT request_id, created_at, -prepared, -quantity FROM old_items) d
+              GROUP BY request_id) c
+        WHERE c.request_id = r.id
+          AND r.created_at >= c.created_on AND r.created_at < c.created_on + INTERVAL '1 day'
+          AND (c.prepared <> 0 OR c.quantity <> 0);
+    ELSE
+        UPDATE "request" r
+        SET prepared_count = r.prepared_count - c.prepared,
+            total_count    = r.total_count - c.quantity
+        FROM (SELECT request_id, MIN(date_trunc('day', created_at)) AS created_on, SUM(prepared) AS prepared, SUM(quantity) AS quantity
+              FROM old_items
+              GROUP BY request_id) c
+        WHERE c.request_id = r.id
+          AND r.created_at >= c.created_on AND r.created_at < c.created_on + INTERVAL '1 day';
+    END IF;
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+-- Detaches and drops the daily partitions of both tables ending more than the given number of days ago.
+-- Requests still left in such a partition, together with their menu items, are moved to the archive tables first,
+-- so they stay readable. The legacy and default partitions are never dropped. Runs under the same advisory lock
+-- as create_request_partitions, so partitions are never created and dropped at the same time.
+CREATE FUNCTION drop_request_partitions(retention_days INT) RETURNS INT AS
+$$
+DECLARE
+    request_partition   TEXT;
+    menu_item_partition TEXT;
+    dropped             INT := 0;
+BEGIN
+    PERFORM pg_advisory_xact_lock(hashtext('create_request_partitions'));
+    FOR request_partition IN
+        SELECT c.relname
+        FROM pg_inherits i
+        JOIN pg_class c ON c.oid = i.inhrelid
+        WHERE i.inhparent = '"request"'::regclass
+          AND c.relname ~ '^request_[0-9]{8}$'
+          AND to_date(substring(c.relname FROM 9), 'YYYYMMDD') + 1 <= CURRENT_DATE - retention_days
+        ORDER BY c.relname
+        LOOP
+            menu_item_partition := 'request_menu_item_' || substring(request_partition FROM 9);
+            EXECUTE format('ALTER TABLE "request" DETACH PARTITION %I', request_partition);
+            EXECUTE format('ALTER TABLE request_menu_item DETACH PARTITION %I', menu_item_partition);
+            EXECUTE format('INSERT INTO request_archive (id, customer_id, status, version, prepared_count, total_count, created_at) '
+                               || 'SELECT id, customer_id, status, version, prepared_count, total_count, created_at FROM %I',
+                           request_partition);
+            EXECUTE format('INSERT INTO request_menu_item_archive (id, request_id, menu_item_id, quantity, prepared, immediate, created_at) '
+                               || 'SELECT id, request_id, menu_item_id, quantity, prepared, immediate, created_at FROM %I',
+                           menu_item_partition);
+            EXECUTE format('DELETE FROM request_partition_key k USING %I r WHERE k.id = r.id', request_partition);
+            EXECUTE format('DELETE FROM request_idempotency_key k USING %I r WHERE k.request_id = r.id', request_partition);
+            EXECUTE format('DROP TABLE %I', menu_item_partition);
+            EXECUTE format('DROP TABLE %I', request_partition);
+            dropped := dropped + 1;
+        END LOOP;
+    RETURN dropped;
+END;
+$$ LANGUAGE plpgsql;
@@ -0,0 +1,2 @@
+-- Index serving keyset pagination of archived requests filtered by status and ordered by id
+CREATE INDEX request_archive_status_id_idx ON request_archive (status, id);
@@ -0,0 +1,172 @@
+package pl.codehouse.restaurant.orders.admission;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.BDDMockito.given;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.pool.PoolMetrics;
+import io.r2dbc.spi.ConnectionFactory;
+import java.time.Duration;
+import java.util.Optional;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@DisplayName("Adaptive Concurrency Limiter Tests")
+@ExtendWith(MockitoExtension.class)
+class AdaptiveConcurrencyLimiterTest {
+    private static final Duration TARGET_LATENCY = Duration.ofMinutes(1);
+    private static final int PENDING_ACQUIRE_THRESHOLD = 3;
+
+    @Mock
+    private ConnectionFactory connectionFactory;
+
+    @Mock
+    private ConnectionPool connectionPool;
+
+    @Mock
+    private PoolMetrics poolMetrics;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private AdaptiveConcurrencyLimiter sut;
+
+    @BeforeEach
+    void setUp() {
+        sut = new AdaptiveConcurrencyLimiter(aProperties(), connectionFactory, meterRegistry);
+    }
+
+    @Test
+    @DisplayName("should reject work above the current limit")
+    void should_RejectWork_When_LimitIsReached() {
+        // when & then
+        assertThat(sut.tryAcquire()).isTrue();
+        assertThat(sut.tryAcquire()).isTrue();
+        assertThat(sut.tryAcquire()).isFalse();
+        assertThat(sut.inFlight()).isEqualTo(2);
+        assertThat(meterRegistry.get("request.admission.rejected").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("should decrease the limit once per target latency when work is slow")
+    void should_DecreaseLimit_When_WorkIsSlow() {
+        // given
+        sut.tryAcquire();
+        sut.tryAcquire();
+
+        // when
+        sut.release(TARGET_LATENCY.plusSeconds(1), true);
+        sut.release(TARGET_LATENCY.plusSeconds(1), true);
+
+        // then
+        assertThat(sut.limit()).isEqualTo(1);
+        assertThat(sut.inFlight()).isZero();
+    }
+
+    @Test
+    @DisplayName("should increase the limit when work completes within target latency")
+    void should_IncreaseLimit_When_WorkIsFast() {
+        // when
+        for (int i = 0; i < 10; i++) {
+            sut.tryAcquire();
+            sut.release(Duration.ofMillis(10), true);
+        }
+
+        // then
+        assertThat(sut.limit()).isGreaterThan(2).isLessThanOrEqualTo(4);
+    }
+
+    @Test
+    @DisplayName("should decrease the limit when work fails")
+    void should_DecreaseLimit_When_WorkFails() {
+        // given
+        sut.tryAcquire();
+
+        // when
+        sut.release(Duration.ofMillis(10), false);
+
+        // then
+        assertThat(sut.limit()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("should keep the limit when unsampled work is slow")
+    void should_KeepLimit_When_UnsampledWorkIsSlow() {
+        // given
+        sut.tryAcquire();
+
+        // when
+        sut.releaseUnsampled(TARGET_LATENCY.plusSeconds(1), true);
+
+        // then
+        assertThat(sut.limit()).isEqualTo(2);
+        assertThat(sut.inFlight()).isZero();
+    }
+
+    @Test
+    @DisplayName("should decrease the limit when unsampled work fails")
+    void should_DecreaseLimit_When_UnsampledWorkFails() {
+        // given
+        sut.tryAcquire();
+
+        // when
+        sut.releaseUnsampled(Duration.ofMillis(10), false);
+
+        // then
+        assertThat(sut.limit()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("should keep the limit when work is cancelled by its client")
+    void should_KeepLimit_When_WorkIsCancelled() {
+        // given
+        sut.tryAcquire();
+
+        // when
+        sut.releaseCancelled();
+
+        // then
+        assertThat(sut.limit()).isEqualTo(2);
+        assertThat(sut.inFlight()).isZero();
+    }
+
+    @Test
+    @DisplayName("should increase the limit when fewer callers than the threshold wait for a connection")
+    void should_IncreaseLimit_When_PendingAcquiresAreBelowThreshold() {
+        // given
+        given(connectionPool.getMetrics()).willReturn(Optional.of(poolMetrics));
+        given(poolMetrics.pendingAcquireSize()).willReturn(PENDING_ACQUIRE_THRESHOLD - 1);
+        sut = new AdaptiveConcurrencyLimiter(aProperties(), connectionPool, meterRegistry);
+        sut.tryAcquire();
+
+        // when
+        sut.release(Duration.ofMillis(10), true);
+
+        // then
+        assertThat(sut.limit()).isGreaterThan(2);
+    }
+
+    @Test
+    @DisplayName("should decrease the limit when the threshold of callers wait for a connection")
+    void should_DecreaseLimit_When_PendingAcquiresReachThreshold() {
+        // given
+        given(connectionPool.getMetrics()).willReturn(Optional.of(poolMetrics));
+        given(poolMetrics.pendingAcquireSize()).willReturn(PENDING_ACQUIRE_THRESHOLD);
+        sut = new AdaptiveConcurrencyLimiter(aProperties(), connectionPool, meterRegistry);
+        sut.tryAcquire();
+
+        // when
+        sut.release(Duration.ofMillis(10), true);
+
+        // then
+        assertThat(sut.limit()).isEqualTo(1);
+    }
+
+    private static AdmissionProperties aProperties() {
+        return new AdmissionProperties(2, 1, 4, TARGET_LATENCY, 0.5, Duration.ofSeconds(1), PENDING_ACQUIRE_THRESHOLD);
+    }
+}
@@ -0,0 +1,84 @@
+package pl.codehouse.restaurant.orders.request;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.then;
+import static org.mockito.Mockito.never;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import pl.codehouse.commons.Context;
+import pl.codehouse.restaurant.orders.shelf.PackingStatus;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+@ExtendWith(MockitoExtension.class)
+class CollectCommandTest {
+    private static final int REQUEST_ID = 1;
+
+    @Mock
+    private RequestBatchRepository requestBatchRepository;
+
+    @Mock
+    private RequestStatusChangePublisher requestStatusChangePublisher;
+
+    @Mock
+    private RequestCache requestCache;
+
+    private CollectCommand collectCommand;
+
+    @BeforeEach
+    void setUp() {
+        collectCommand = new CollectCommand(requestBatchRepository, requestStatusChangePublisher, requestCache);
+    }
+
+    @Test
+    void Should_InvalidateAndPublishTransition_When_RequestIsReadyToCollect() {
+        // Given
+        RequestStatusTransition transition = new RequestStatusTransition(REQUEST_ID, RequestStatus.READY_TO_COLLECT, RequestStatus.COLLECTED);
+        given(requestBatchRepository.transitionStatus(REQUEST_ID, RequestStatus.READY_TO_COLLECT, RequestStatus.COLLECTED))
+                .willReturn(Mono.just(transition));
+
+        // When & Then
+        StepVerifier.create(collectCommand.execute(new Context<>(REQUEST_ID)))
+                .assertNext(executionResult -> assertThat(executionResult.handle()).isEqualTo(transition))
+                .verifyComplete();
+
+        then(requestCache).should().invalidate(REQUEST_ID);
+        then(requestStatusChangePublisher).should().publishTransition(transition, PackingStatus.READY_TO_COLLECT);
+    }
+
+    @Test
+    void Should_NotPublish_When_RequestIsNotReadyToCollect() {
+        // Given
+        RequestStatusTransition transition = new RequestStatusTransition(REQUEST_ID, RequestStatus.IN_PROGRESS, RequestStatus.IN_PROGRESS);
+        given(requestBatchRepository.transitionStatus(REQUEST_ID, RequestStatus.READY_TO_COLLECT, RequestStatus.COLLECTED))
+                .willReturn(Mono.just(transition));
+
+        // When & Then
+        StepVerifier.create(collectCommand.execute(new Context<>(REQUEST_ID)))
+                .assertNext(executionResult -> assertThat(executionResult.handle()).isEqualTo(transition))
+                .verifyComplete();
+
+        then(requestCache).should(never()).invalidate(anyInt());
+        then(requestStatusChangePublisher).should(never()).publishTransition(any(), any());
+    }
+
+    @Test
+    void Should_CompleteEmpty_When_RequestDoesNotExist() {
+        // Given
+        given(requestBatchRepository.transitionStatus(REQUEST_ID, RequestStatus.READY_TO_COLLECT, RequestStatus.COLLECTED))
+                .willReturn(Mono.empty());
+
+        // When & Then
+        StepVerifier.create(collectCommand.execute(new Context<>(REQUEST_ID)))
+                .verifyComplete();
+
+        then(requestStatusChangePublisher).should(never()).publishTransition(any(), any());
+    }
+}
@@ -0,0 +1,144 @@
+package pl.codehouse.restaurant.orders.request;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.then;
+import static org.mockito.Mockito.times;
+import static pl.codehouse.restaurant.orders.request.RequestDtoBuilder.aRequestDto;
+import static pl.codehouse.restaurant.orders.request.RequestedMenuItemPayloadBuilder.aMenuItemOneRequest;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.List;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DuplicateKeyException;
+import pl.codehouse.commons.Context;
+import pl.codehouse.commons.ExecutionResult;
+import pl.codehouse.restaurant.orders.exceptions.ResourceNotFoundException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+@DisplayName("Group Commit Request Creator Tests")
+@ExtendWith(MockitoExtension.class)
+class GroupCommitRequestCreatorTest {
+    private static final int CUSTOMER_1_ID = 1001;
+    private static final int CUSTOMER_2_ID = 1002;
+
+    @Mock
+    private BatchCreateCommand batchCreateCommand;
+
+    @Mock
+    private CreateCommand createCommand;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private GroupCommitRequestCreator sut;
+
+    @BeforeEach
+    void setUp() {
+        GroupCommitProperties properties = new GroupCommitProperties(Duration.ofSeconds(1), 2, 1);
+        sut = new GroupCommitRequestCreator(batchCreateCommand, createCommand, properties, meterRegistry);
+    }
+
+    @AfterEach
+    void tearDown() {
+        sut.shutdown();
+    }
+
+    @Test
+    @DisplayName("should store concurrent requests together and complete each caller with its own outcome")
+    void should_StoreRequestsTogether_When_CreatedConcurrently() {
+        // given
+        RequestDto requestDto = aRequestDto().withCustomerId(CUSTOMER_1_ID).addMenuItemOne().build();
+        given(batchCreateCommand.execute(any())).willReturn(Mono.just(ExecutionResult.success(List.of(
+                BatchRequestResult.created(0, requestDto),
+                BatchRequestResult.rejected(1, "Not all request components were found")
+        ))));
+
+        // when
+        Mono<ExecutionResult<RequestDto>> first = sut.create(new Context<>(aRequestPayload(CUSTOMER_1_ID)));
+        Mono<ExecutionResult<RequestDto>> second = sut.create(new Context<>(aRequestPayload(CUSTOMER_2_ID)));
+
+        // then
+        Mono<String> secondOutcome = second
+                .map(result -> "created")
+                .onErrorResume(ResourceNotFoundException.class, error -> Mono.just(error.getReason()));
+        StepVerifier.create(Mono.zip(first, secondOutcome))
+                .assertNext(results -> {
+                    assertThat(results.getT1().value()).hasValue(requestDto);
+                    assertThat(results.getT2()).isEqualTo("Not all request components were found");
+                })
+                .verifyComplete();
+
+        ArgumentCaptor<Context<List<RequestPayload>>> contextCaptor = ArgumentCaptor.captor();
+        then(batchCreateCommand).should(times(1)).execute(contextCaptor.capture());
+        assertThat(contextCaptor.getValue().request())
+                .extracting(RequestPayload::customerId)
+                .containsExactly(CUSTOMER_1_ID, CUSTOMER_2_ID);
+        assertThat(meterRegistry.get("request.group-commit.batch-size").summary().totalAmount()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("should store requests one by one when group transaction fails")
+    void should_StoreRequestsAlone_When_GroupCommitFails() {
+        // given
+        RequestDto requestDto = aRequestDto().withCustomerId(CUSTOMER_1_ID).addMenuItemOne().build();
+        given(batchCreateCommand.execute(any())).willReturn(Mono.error(new DuplicateKeyException("request_idempotency_key_uidx")));
+        given(createCommand.execute(any())).willReturn(Mono.just(ExecutionResult.success(requestDto)));
+
+        // when
+        Mono<ExecutionResult<RequestDto>> first = sut.create(new Context<>(aRequestPayload(CUSTOMER_1_ID)));
+        Mono<ExecutionResult<RequestDto>> second = sut.create(new Context<>(aRequestPayload(CUSTOMER_2_ID)));
+
+        // then
+        StepVerifier.create(Mono.zip(first, second))
+                .assertNext(results -> {
+                    assertThat(results.getT1().value()).hasValue(requestDto);
+                    assertThat(results.getT2().value()).hasValue(requestDto);
+                })
+                .verifyComplete();
+
+        then(createCommand).should(times(2)).execute(any());
+    }
+
+    @Test
+    @DisplayName("should keep storing requests when windows close while all commit slots are busy")
+    void should_CompleteAllRequests_When_CommitsAreSlowerThanWindow() {
+        // given
+        sut.shutdown();
+        sut = new GroupCommitRequestCreator(batchCreateCommand, createCommand, new GroupCommitProperties(Duration.ofMillis(5), 2, 1), meterRegistry);
+        RequestDto requestDto = aRequestDto().withCustomerId(CUSTOMER_1_ID).addMenuItemOne().build();
+        given(batchCreateCommand.execute(any())).willAnswer(invocation -> {
+            Context<List<RequestPayload>> context = invocation.getArgument(0);
+            List<BatchRequestResult> results = IntStream.range(0, context.request().size())
+                    .mapToObj(index -> BatchRequestResult.created(index, requestDto))
+                    .toList();
+            return Mono.delay(Duration.ofMillis(50)).thenReturn(ExecutionResult.success(results));
+        });
+
+        // when
+        Flux<ExecutionResult<RequestDto>> results = Flux.range(0, 10)
+                .delayElements(Duration.ofMillis(3))
+                .flatMap(i -> sut.create(new Context<>(aRequestPayload(CUSTOMER_1_ID))));
+
+        // then
+        StepVerifier.create(results)
+                .expectNextCount(10)
+                .expectComplete()
+                .verify(Duration.ofSeconds(5));
+    }
+
+    private static RequestPayload aRequestPayload(int customerId) {
+        return new RequestPayload(List.of(aMenuItemOneRequest().build()), customerId);
+    }
+}
@@ -0,0 +1,66 @@
+package pl.codehouse.restaurant.orders.request;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+import reactor.test.StepVerifier;
+
+@DisplayName("Id Block Allocator Tests")
+class IdBlockAllocatorTest {
+    private static final int FIRST_ID = 1000;
+
+    private final AtomicInteger sequence = new AtomicInteger(FIRST_ID);
+    private final List<Integer> reservations = new ArrayList<>();
+
+    private IdBlockAllocator sut;
+
+    @BeforeEach
+    void setUp() {
+        sut = new IdBlockAllocator(IdSequence.REQUEST, 3, (idSequence, count) -> {
+            reservations.add(count);
+            return Flux.range(0, count).map(i -> sequence.getAndIncrement());
+        });
+    }
+
+    @Test
+    @DisplayName("should hand out identifiers of a reserved block without reserving again")
+    void should_HandOutIdentifiersFromMemory_When_BlockIsNotExhausted() {
+        // when & then
+        StepVerifier.create(sut.allocate(1).zipWith(sut.allocate(2)))
+                .assertNext(ids -> {
+                    assertThat(ids.getT1()).containsExactly(1000);
+                    assertThat(ids.getT2()).containsExactly(1001, 1002);
+                })
+                .verifyComplete();
+
+        assertThat(reservations).containsExactly(3);
+    }
+
+    @Test
+    @DisplayName("should continue with a new block when the current one is exhausted")
+    void should_ReserveNewBlock_When_BlockIsExhausted() {
+        // when & then
+        StepVerifier.create(sut.allocate(2).then(sut.allocate(2)))
+                .assertNext(ids -> assertThat(ids).containsExactly(1002, 1003))
+                .verifyComplete();
+
+        assertThat(reservations).containsExactly(3, 3);
+    }
+
+    @Test
+    @DisplayName("should reserve more identifiers than the block size when more are requested at once")
+    void should_ReserveLargerBlock_When_MoreIdentifiersAreRequested() {
+        // when & then
+        StepVerifier.create(sut.allocate(5))
+                .assertNext(ids -> assertThat(ids).containsExactly(1000, 1001, 1002, 1003, 1004))
+                .verifyComplete();
+
+        assertThat(reservations).containsExactly(5);
+    }
+}
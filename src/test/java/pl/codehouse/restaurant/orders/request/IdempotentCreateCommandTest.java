@@ -0,0 +1,102 @@
+package pl.codehouse.restaurant.orders.request;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.then;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static pl.codehouse.restaurant.orders.request.RequestDtoBuilder.aRequestDto;
+import static pl.codehouse.restaurant.orders.request.RequestEntityBuilder.CUSTOMER_ID;
+import static pl.codehouse.restaurant.orders.request.RequestEntityBuilder.REQUEST_ID;
+import static pl.codehouse.restaurant.orders.request.RequestedMenuItemPayloadBuilder.aMenuItemOneRequest;
+
+import java.time.Duration;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DuplicateKeyException;
+import pl.codehouse.commons.Context;
+import pl.codehouse.commons.ExecutionResult;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+@DisplayName("Idempotent Create Command Tests")
+@ExtendWith(MockitoExtension.class)
+class IdempotentCreateCommandTest {
+    private static final String IDEMPOTENCY_KEY = "5d0b7c36-6a8e-4f4e-9d55-0f3c1f1b2a11";
+
+    @Mock
+    private RequestCreator requestCreator;
+
+    @Mock
+    private RequestRepository requestRepository;
+
+    @Mock
+    private RequestService requestService;
+
+    private IdempotentCreateCommand sut;
+
+    @BeforeEach
+    void setUp() {
+        sut = new IdempotentCreateCommand(requestCreator, requestRepository, requestService, new IdempotencyProperties(10, Duration.ofMinutes(1)));
+    }
+
+    @Test
+    @DisplayName("should return the original request when creation is replayed with the same idempotency key")
+    void should_ReturnOriginalRequest_When_CreationIsReplayed() {
+        // given
+        RequestDto requestDto = aRequestDto().addMenuItemOne().build();
+        Context<RequestPayload> context = new Context<>(aRequestPayload().withIdempotencyKey(IDEMPOTENCY_KEY));
+        given(requestCreator.create(context)).willReturn(Mono.just(ExecutionResult.success(requestDto)));
+
+        // when & then
+        StepVerifier.create(sut.execute(context).then(sut.execute(context)))
+                .assertNext(result -> assertThat(result.value()).hasValue(requestDto))
+                .verifyComplete();
+
+        then(requestCreator).should(times(1)).create(any());
+        then(requestRepository).shouldHaveNoInteractions();
+    }
+
+    @Test
+    @DisplayName("should load the original request when the idempotency key is already stored")
+    void should_LoadOriginalRequest_When_IdempotencyKeyIsAlreadyStored() {
+        // given
+        RequestDto requestDto = aRequestDto().addMenuItemOne().build();
+        Context<RequestPayload> context = new Context<>(aRequestPayload().withIdempotencyKey(IDEMPOTENCY_KEY));
+        given(requestCreator.create(context)).willReturn(Mono.error(new DuplicateKeyException("request_idempotency_key_uidx")));
+        given(requestRepository.findIdByIdempotencyKey(IDEMPOTENCY_KEY)).willReturn(Mono.just(REQUEST_ID));
+        given(requestService.findById(REQUEST_ID)).willReturn(Mono.just(requestDto));
+
+        // when & then
+        StepVerifier.create(sut.execute(context))
+                .assertNext(result -> assertThat(result.value()).hasValue(requestDto))
+                .verifyComplete();
+    }
+
+    @Test
+    @DisplayName("should create request every time when no idempotency key is given")
+    void should_CreateRequest_When_IdempotencyKeyIsMissing() {
+        // given
+        RequestDto requestDto = aRequestDto().addMenuItemOne().build();
+        Context<RequestPayload> context = new Context<>(aRequestPayload());
+        given(requestCreator.create(context)).willReturn(Mono.just(ExecutionResult.success(requestDto)));
+
+        // when & then
+        StepVerifier.create(sut.execute(context).then(sut.execute(context)))
+                .assertNext(result -> assertThat(result.value()).hasValue(requestDto))
+                .verifyComplete();
+
+        then(requestCreator).should(times(2)).create(context);
+        then(requestRepository).should(never()).findIdByIdempotencyKey(any());
+    }
+
+    private static RequestPayload aRequestPayload() {
+        return new RequestPayload(List.of(aMenuItemOneRequest().build()), CUSTOMER_ID);
+    }
+}
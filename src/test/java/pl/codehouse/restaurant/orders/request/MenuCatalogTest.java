@@ -0,0 +1,137 @@
+package pl.codehouse.restaurant.orders.request;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.then;
+import static org.mockito.Mockito.times;
+import static pl.codehouse.restaurant.orders.request.MenuItemEntityBuilder.MENU_ITEM_1_ID;
+import static pl.codehouse.restaurant.orders.request.MenuItemEntityBuilder.MENU_ITEM_2_ID;
+import static pl.codehouse.restaurant.orders.request.MenuItemEntityBuilder.MENU_ITEM_3_ID;
+import static pl.codehouse.restaurant.orders.request.MenuItemEntityBuilder.aMenuItemEntityOne;
+import static pl.codehouse.restaurant.orders.request.MenuItemEntityBuilder.aMenuItemEntityThree;
+import static pl.codehouse.restaurant.orders.request.MenuItemEntityBuilder.aMenuItemEntityTwo;
+
+import java.time.Duration;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import reactor.core.publisher.Flux;
+import reactor.test.StepVerifier;
+
+@DisplayName("Menu Catalog Tests")
+@ExtendWith(MockitoExtension.class)
+class MenuCatalogTest {
+    private static final Duration REFRESH_INTERVAL = Duration.ofMinutes(5);
+
+    @Mock
+    private MenuItemRepository menuItemRepository;
+
+    private MenuCatalog sut;
+
+    @BeforeEach
+    void setUp() {
+        sut = new MenuCatalog(menuItemRepository, new MenuCatalogProperties(REFRESH_INTERVAL, Duration.ZERO));
+    }
+
+    @Test
+    @DisplayName("should load menu once and serve following lookups from memory")
+    void should_LoadMenuOnce_When_MenuItemsAreKnown() {
+        // given
+        given(menuItemRepository.findAll()).willReturn(Flux.just(aMenuItemEntityOne().build(), aMenuItemEntityTwo().build()));
+
+        // when & then
+        StepVerifier.create(sut.resolve(List.of(MENU_ITEM_1_ID)).then(sut.resolve(List.of(MENU_ITEM_1_ID, MENU_ITEM_2_ID))))
+                .assertNext(menu -> {
+                    assertThat(menu.version()).isEqualTo(1);
+                    assertThat(menu.find(MENU_ITEM_2_ID)).hasValueSatisfying(menuItem -> assertThat(menuItem.id()).isEqualTo(MENU_ITEM_2_ID));
+                })
+                .verifyComplete();
+
+        then(menuItemRepository).should(times(1)).findAll();
+    }
+
+    @Test
+    @DisplayName("should reload menu when unknown menu item is requested")
+    void should_ReloadMenu_When_MenuItemIsUnknown() {
+        // given
+        given(menuItemRepository.findAll())
+                .willReturn(Flux.just(aMenuItemEntityOne().build()))
+                .willReturn(Flux.just(aMenuItemEntityOne().build(), aMenuItemEntityThree().build()));
+
+        // when & then
+        StepVerifier.create(sut.snapshot().then(sut.resolve(List.of(MENU_ITEM_3_ID))))
+                .assertNext(menu -> {
+                    assertThat(menu.version()).isEqualTo(2);
+                    assertThat(menu.containsAll(List.of(MENU_ITEM_1_ID, MENU_ITEM_3_ID))).isTrue();
+                })
+                .verifyComplete();
+    }
+
+    @Test
+    @DisplayName("should not reload menu for unknown menu item when it was loaded within the minimal reload interval")
+    void should_NotReloadMenu_When_MenuWasLoadedRecently() {
+        // given
+        MenuCatalog throttledCatalog = new MenuCatalog(menuItemRepository, new MenuCatalogProperties(REFRESH_INTERVAL, Duration.ofMinutes(1)));
+        given(menuItemRepository.findAll()).willReturn(Flux.just(aMenuItemEntityOne().build()));
+
+        // when & then
+        StepVerifier.create(throttledCatalog.snapshot()
+                        .then(throttledCatalog.resolve(List.of(MENU_ITEM_3_ID)))
+                        .then(throttledCatalog.resolve(List.of(MENU_ITEM_3_ID))))
+                .assertNext(menu -> assertThat(menu.containsAll(List.of(MENU_ITEM_3_ID))).isFalse())
+                .verifyComplete();
+
+        then(menuItemRepository).should(times(1)).findAll();
+    }
+
+    @Test
+    @DisplayName("should keep version when reloaded menu did not change")
+    void should_KeepVersion_When_MenuDidNotChange() {
+        // given
+        given(menuItemRepository.findAll()).willReturn(Flux.just(aMenuItemEntityOne().build()));
+
+        // when
+        sut.snapshot().block();
+        sut.invalidate();
+
+        // then
+        StepVerifier.create(sut.snapshot())
+                .assertNext(menu -> assertThat(menu.version()).isEqualTo(1))
+                .verifyComplete();
+
+        then(menuItemRepository).should(times(2)).findAll();
+    }
+
+    @Test
+    @DisplayName("should not find menu item missing from sparse menu")
+    void should_NotFindMenuItem_When_MenuIsSparse() {
+        // given
+        MenuSnapshot menu = MenuSnapshot.of(List.of(
+                aMenuItemEntityOne().withId(1).build(),
+                aMenuItemEntityTwo().withId(1_000_000).build()
+        ));
+
+        // when & then
+        assertThat(menu.find(1)).isPresent();
+        assertThat(menu.find(1_000_000)).isPresent();
+        assertThat(menu.find(MENU_ITEM_1_ID)).isEmpty();
+    }
+
+    @Test
+    @DisplayName("should derive menu tag from the content of all menu items")
+    void should_ChangeEtag_When_AnyMenuItemFieldChanged() {
+        // given
+        MenuSnapshot menu = MenuSnapshot.of(List.of(aMenuItemEntityOne().build(), aMenuItemEntityTwo().build()));
+        MenuSnapshot sameMenu = new MenuSnapshot(7, List.of(aMenuItemEntityTwo().build(), aMenuItemEntityOne().build()));
+        MenuSnapshot repricedMenu = MenuSnapshot.of(List.of(aMenuItemEntityOne().build(), aMenuItemEntityTwo().withPrice(1300).build()));
+
+        // when & then
+        assertThat(menu.etag()).matches("menu-[0-9a-f]{64}");
+        assertThat(sameMenu.etag()).isEqualTo(menu.etag());
+        assertThat(repricedMenu.etag()).isNotEqualTo(menu.etag());
+    }
+}
@@ -0,0 +1,121 @@
+package pl.codehouse.restaurant.orders.request;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.then;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.KafkaHeaders;
+import org.springframework.messaging.Message;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import pl.codehouse.restaurant.orders.shelf.PackingStatus;
+import pl.codehouse.restaurant.orders.shelf.ShelfKafkaProperties;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+@DisplayName("Outbox Relay Tests")
+@ExtendWith(MockitoExtension.class)
+class OutboxRelayTest {
+    private static final int REQUEST_ID = 1100;
+    private static final String SHELF_TOPIC = "shelf-events";
+    private static final String REQUEST_STATUS_TOPIC = "request-status-changes";
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Mock
+    private OutboxEventRepository outboxEventRepository;
+
+    @Mock
+    private KafkaTemplate<String, Object> kafkaTemplate;
+
+    @Mock
+    private TransactionalOperator transactionalOperator;
+
+    private OutboxRelay sut;
+
+    @BeforeEach
+    void setUp() {
+        given(transactionalOperator.transactional(any(Mono.class))).willAnswer(invocation -> invocation.getArgument(0));
+        sut = new OutboxRelay(
+                outboxEventRepository,
+                kafkaTemplate,
+                objectMapper,
+                transactionalOperator,
+                new ShelfKafkaProperties(SHELF_TOPIC, 1),
+                new RequestStatusChangeKafkaProperties(REQUEST_STATUS_TOPIC, 1),
+                new OutboxRelayProperties(10, Duration.ofMillis(250))
+        );
+    }
+
+    @Test
+    @DisplayName("should send outbox events to their topics and delete them once acknowledged")
+    void should_SendAndDeleteEvents_When_OutboxIsNotEmpty() throws JsonProcessingException {
+        // given
+        given(outboxEventRepository.lockNextBatch(10)).willReturn(Flux.just(
+                outboxEvent(1L, OutboxEventType.SHELF_EVENT, ShelfEventDto.newRequestEvent(REQUEST_ID)),
+                outboxEvent(2L, OutboxEventType.REQUEST_STATUS_CHANGE,
+                        new RequestStatusChangeMessage(REQUEST_ID, RequestStatus.NEW, PackingStatus.NOT_STARTED))
+        ));
+        given(kafkaTemplate.send(any(Message.class))).willReturn(CompletableFuture.completedFuture(null));
+        given(outboxEventRepository.deleteAllById(anyList())).willReturn(Mono.empty());
+
+        // when
+        StepVerifier.create(sut.relay())
+                .verifyComplete();
+
+        // then
+        ArgumentCaptor<Message<?>> messageCaptor = ArgumentCaptor.captor();
+        then(kafkaTemplate).should(times(2)).send(messageCaptor.capture());
+        then(outboxEventRepository).should(times(1)).deleteAllById(List.of(1L, 2L));
+
+        assertThat(messageCaptor.getAllValues())
+                .satisfiesExactly(
+                        message -> {
+                            assertThat(message.getHeaders()).containsEntry(KafkaHeaders.TOPIC, SHELF_TOPIC);
+                            assertThat(message.getPayload()).isEqualTo(ShelfEventDto.newRequestEvent(REQUEST_ID));
+                        },
+                        message -> {
+                            assertThat(message.getHeaders()).containsEntry(KafkaHeaders.TOPIC, REQUEST_STATUS_TOPIC);
+                            assertThat(message.getPayload()).isInstanceOf(RequestStatusChangeMessage.class);
+                        });
+    }
+
+    @Test
+    @DisplayName("should keep outbox events when Kafka did not acknowledge them")
+    void should_KeepEvents_When_SendFailed() throws JsonProcessingException {
+        // given
+        given(outboxEventRepository.lockNextBatch(10)).willReturn(Flux.just(
+                outboxEvent(1L, OutboxEventType.SHELF_EVENT, ShelfEventDto.newRequestEvent(REQUEST_ID))
+        ));
+        given(kafkaTemplate.send(any(Message.class))).willReturn(CompletableFuture.failedFuture(new IllegalStateException("Broker unavailable")));
+
+        // when
+        StepVerifier.create(sut.relay())
+                .verifyComplete();
+
+        // then
+        then(outboxEventRepository).should(never()).deleteAllById(anyList());
+    }
+
+    private OutboxEventEntity outboxEvent(long id, OutboxEventType eventType, Object payload) throws JsonProcessingException {
+        return new OutboxEventEntity(id, eventType, REQUEST_ID, objectMapper.writeValueAsString(payload), LocalDateTime.now());
+    }
+}
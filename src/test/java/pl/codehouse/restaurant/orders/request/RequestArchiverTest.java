@@ -0,0 +1,60 @@
+package pl.codehouse.restaurant.orders.request;
+
+import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.then;
+import static org.mockito.Mockito.times;
+
+import java.time.Duration;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+@DisplayName("Request Archiver Tests")
+@ExtendWith(MockitoExtension.class)
+class RequestArchiverTest {
+    private static final Duration AGE = Duration.ofDays(1);
+    private static final int BATCH_SIZE = 2;
+
+    @Mock
+    private RequestBatchRepository requestBatchRepository;
+
+    private RequestArchiver sut;
+
+    @BeforeEach
+    void setUp() {
+        sut = new RequestArchiver(requestBatchRepository, new RequestArchiveProperties(AGE, BATCH_SIZE, Duration.ofMinutes(10)));
+    }
+
+    @Test
+    @DisplayName("should archive collected requests batch by batch until a batch is not full")
+    void should_ArchiveNextBatch_When_BatchWasFull() {
+        // given
+        given(requestBatchRepository.archiveRequests(List.of(RequestStatus.COLLECTED), AGE, BATCH_SIZE))
+                .willReturn(Mono.just(2L), Mono.just(1L));
+
+        // when
+        StepVerifier.create(sut.archive())
+                .verifyComplete();
+
+        // then
+        then(requestBatchRepository).should(times(2)).archiveRequests(List.of(RequestStatus.COLLECTED), AGE, BATCH_SIZE);
+    }
+
+    @Test
+    @DisplayName("should complete without error when archiving fails")
+    void should_Complete_When_ArchivingFails() {
+        // given
+        given(requestBatchRepository.archiveRequests(List.of(RequestStatus.COLLECTED), AGE, BATCH_SIZE))
+                .willReturn(Mono.error(new IllegalStateException("Database unavailable")));
+
+        // when & then
+        StepVerifier.create(sut.archive())
+                .verifyComplete();
+    }
+}
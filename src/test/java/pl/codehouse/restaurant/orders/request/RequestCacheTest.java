@@ -0,0 +1,86 @@
+package pl.codehouse.restaurant.orders.request;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static pl.codehouse.restaurant.orders.request.RequestDtoBuilder.aRequestDto;
+import static pl.codehouse.restaurant.orders.request.RequestEntityBuilder.REQUEST_ID;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntFunction;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+@DisplayName("Request Cache Tests")
+class RequestCacheTest {
+    private static final int REQUEST_VERSION = 3;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final AtomicInteger loads = new AtomicInteger();
+
+    private RequestCache sut;
+
+    @BeforeEach
+    void setUp() {
+        sut = new RequestCache(new RequestCacheProperties(10, Duration.ofMinutes(1)), meterRegistry);
+    }
+
+    @Test
+    @DisplayName("should load request once and serve next reads from the cache")
+    void should_LoadRequestOnce_When_ReadRepeatedly() {
+        // given
+        VersionedRequest versionedRequest = new VersionedRequest(aRequestDto().addMenuItemOne().build(), REQUEST_VERSION);
+        IntFunction<Mono<VersionedRequest>> loader = countingLoader(Mono.just(versionedRequest));
+
+        // when & then
+        StepVerifier.create(sut.get(REQUEST_ID, loader).then(sut.get(REQUEST_ID, loader)))
+                .expectNext(versionedRequest)
+                .verifyComplete();
+
+        assertThat(loads).hasValue(1);
+        assertThat(meterRegistry.get("cache.gets").tag("result", "hit").functionCounter().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("cache.gets").tag("result", "miss").functionCounter().count()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("should load request again when it was invalidated")
+    void should_ReloadRequest_When_Invalidated() {
+        // given
+        VersionedRequest versionedRequest = new VersionedRequest(aRequestDto().addMenuItemOne().build(), REQUEST_VERSION);
+        IntFunction<Mono<VersionedRequest>> loader = countingLoader(Mono.just(versionedRequest));
+
+        // when
+        StepVerifier.create(sut.get(REQUEST_ID, loader)
+                        .doOnNext(cached -> sut.invalidate(REQUEST_ID))
+                        .then(sut.get(REQUEST_ID, loader)))
+                .expectNext(versionedRequest)
+                .verifyComplete();
+
+        // then
+        assertThat(loads).hasValue(2);
+    }
+
+    @Test
+    @DisplayName("should not cache missing request")
+    void should_NotCacheMissingRequest_When_LoaderIsEmpty() {
+        // given
+        IntFunction<Mono<VersionedRequest>> loader = countingLoader(Mono.empty());
+
+        // when
+        StepVerifier.create(sut.get(REQUEST_ID, loader).then(sut.get(REQUEST_ID, loader)))
+                .verifyComplete();
+
+        // then
+        assertThat(loads).hasValue(2);
+    }
+
+    private IntFunction<Mono<VersionedRequest>> countingLoader(Mono<VersionedRequest> result) {
+        return requestId -> Mono.defer(() -> {
+            loads.incrementAndGet();
+            return result;
+        });
+    }
+}
@@ -91,4 +91,25 @@ class RequestDtoTest {
                 .isInstanceOf(IllegalStateException.class)
                 .hasMessage("Menu item not found");
     }
-}
\ No newline at end of file
+
+    @Test
+    @DisplayName("Should compute counts and status from already resolved MenuItems")
+    void shouldComputeCountsAndStatusFromResolvedMenuItems() {
+        // given
+        List<RequestMenuItem> menuItems = List.of(
+                aRequestMenuItemOne().withQuantity(2).withPrepared(2).build(),
+                aRequestMenuItemTwo().withQuantity(3).withPrepared(1).build()
+        );
+
+        // when
+        RequestDto dto = RequestDto.of(entity, menuItems);
+
+        // then
+        assertThat(dto)
+                .hasFieldOrPropertyWithValue("requestId", REQUEST_ID)
+                .hasFieldOrPropertyWithValue("menuItems", menuItems)
+                .hasFieldOrPropertyWithValue("preparedItemsCount", 3)
+                .hasFieldOrPropertyWithValue("totalItemsCount", 5)
+                .hasFieldOrPropertyWithValue("status", RequestStatus.IN_PROGRESS);
+    }
+}
@@ -0,0 +1,104 @@
+package pl.codehouse.restaurant.orders.request;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.then;
+import static org.mockito.Mockito.times;
+import static pl.codehouse.restaurant.orders.request.RequestDtoBuilder.aRequestDto;
+import static pl.codehouse.restaurant.orders.request.RequestedMenuItemPayloadBuilder.aMenuItemOneRequest;
+
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import pl.codehouse.commons.Context;
+import pl.codehouse.commons.ExecutionResult;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+@DisplayName("Request Importer Tests")
+@ExtendWith(MockitoExtension.class)
+class RequestImporterTest {
+    private static final String REQUEST_LINE = "{\"customerId\": 1001, \"menuItems\": [{\"menuId\": 10001, \"quantity\": 1}]}";
+
+    @Mock
+    private BatchCreateCommand batchCreateCommand;
+
+    private RequestImporter sut;
+
+    @BeforeEach
+    void setUp() {
+        sut = new RequestImporter(batchCreateCommand, Jackson2ObjectMapperBuilder.json().build(), new RequestImportProperties(2));
+    }
+
+    @Test
+    @DisplayName("should store stream in chunks and index results within the whole stream")
+    void should_StoreStreamInChunks_When_RequestsAreImported() {
+        // given
+        RequestDto requestDto = aRequestDto().addMenuItemOne().build();
+        given(batchCreateCommand.execute(any()))
+                .willReturn(Mono.just(ExecutionResult.success(List.of(
+                        BatchRequestResult.created(0, requestDto),
+                        BatchRequestResult.rejected(1, "Not all request components were found")))))
+                .willReturn(Mono.just(ExecutionResult.success(List.of(BatchRequestResult.created(0, requestDto)))));
+
+        // when & then
+        StepVerifier.create(sut.importRequests(Flux.just(REQUEST_LINE, REQUEST_LINE, REQUEST_LINE)))
+                .assertNext(result -> assertThat(result).isEqualTo(BatchRequestResult.created(0, requestDto)))
+                .assertNext(result -> assertThat(result.index()).isEqualTo(1))
+                .assertNext(result -> assertThat(result).isEqualTo(BatchRequestResult.created(2, requestDto)))
+                .verifyComplete();
+
+        then(batchCreateCommand).should(times(2)).execute(any());
+    }
+
+    @Test
+    @DisplayName("should reject chunk and continue import when storing a chunk fails")
+    void should_ContinueImport_When_ChunkFails() {
+        // given
+        RequestDto requestDto = aRequestDto().addMenuItemOne().build();
+        given(batchCreateCommand.execute(any()))
+                .willReturn(Mono.error(new IllegalStateException("Connection reset")))
+                .willReturn(Mono.just(ExecutionResult.success(List.of(BatchRequestResult.created(0, requestDto)))));
+
+        // when & then
+        StepVerifier.create(sut.importRequests(Flux.just(REQUEST_LINE, REQUEST_LINE, REQUEST_LINE)))
+                .assertNext(result -> assertThat(result).isEqualTo(BatchRequestResult.rejected(0, "Unable to store request")))
+                .assertNext(result -> assertThat(result).isEqualTo(BatchRequestResult.rejected(1, "Unable to store request")))
+                .assertNext(result -> assertThat(result).isEqualTo(BatchRequestResult.created(2, requestDto)))
+                .verifyComplete();
+    }
+
+    @Test
+    @DisplayName("should reject malformed line at its position and store the other requests")
+    void should_RejectMalformedLine_When_LineIsNotValidJson() {
+        // given
+        RequestDto requestDto = aRequestDto().addMenuItemOne().build();
+        given(batchCreateCommand.execute(any()))
+                .willReturn(Mono.just(ExecutionResult.success(List.of(BatchRequestResult.created(0, requestDto)))))
+                .willReturn(Mono.just(ExecutionResult.success(List.of(BatchRequestResult.created(0, requestDto)))));
+
+        // when & then
+        StepVerifier.create(sut.importRequests(Flux.just("{\"customerId\": 1001, \"menuItems\": [", REQUEST_LINE, "", REQUEST_LINE)))
+                .assertNext(result -> assertThat(result).isEqualTo(BatchRequestResult.rejected(0, "Malformed request")))
+                .assertNext(result -> assertThat(result).isEqualTo(BatchRequestResult.created(1, requestDto)))
+                .assertNext(result -> assertThat(result).isEqualTo(BatchRequestResult.created(2, requestDto)))
+                .verifyComplete();
+
+        ArgumentCaptor<Context<List<RequestPayload>>> contextCaptor = ArgumentCaptor.captor();
+        then(batchCreateCommand).should(times(2)).execute(contextCaptor.capture());
+        assertThat(contextCaptor.getAllValues())
+                .allSatisfy(context -> assertThat(context.request()).containsExactly(aRequestPayload()));
+    }
+
+    private static RequestPayload aRequestPayload() {
+        return new RequestPayload(List.of(aMenuItemOneRequest().build()), 1001);
+    }
+}
@@ -0,0 +1,93 @@
+package pl.codehouse.restaurant.orders.request;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.BDDMockito.then;
+import static org.mockito.Mockito.after;
+import static org.mockito.Mockito.times;
+
+import java.time.Duration;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.messaging.Message;
+import pl.codehouse.restaurant.orders.shelf.PackingStatus;
+
+@DisplayName("Request Status Change Publisher Tests")
+@ExtendWith(MockitoExtension.class)
+class RequestStatusChangePublisherTest {
+    private static final int REQUEST_ID = 1111;
+    private static final Duration COALESCE_WINDOW = Duration.ofMillis(100);
+    private static final long SETTLE_MILLIS = 500;
+
+    @Mock
+    private KafkaTemplate<String, RequestStatusChangeMessage> kafkaTemplate;
+
+    private RequestStatusChangePublisher sut;
+
+    @BeforeEach
+    void setUp() {
+        sut = new RequestStatusChangePublisher(
+                kafkaTemplate,
+                new RequestStatusChangeKafkaProperties("request-status-changes", 1),
+                new RequestProgressProperties(COALESCE_WINDOW)
+        );
+    }
+
+    @Test
+    @DisplayName("should publish only the latest of the progress events of a request within the window")
+    void should_PublishLatestProgress_When_ProgressEventsArriveWithinWindow() {
+        // given
+        RequestStatusTransition progress = new RequestStatusTransition(REQUEST_ID, RequestStatus.IN_PROGRESS, RequestStatus.IN_PROGRESS);
+
+        // when
+        sut.publishTransition(progress, PackingStatus.IN_PROGRESS);
+        sut.publishTransition(progress, PackingStatus.IN_PROGRESS);
+        sut.publishTransition(progress, PackingStatus.IN_PROGRESS);
+
+        // then
+        then(kafkaTemplate).should(after(SETTLE_MILLIS).times(1)).send(any(Message.class));
+    }
+
+    @Test
+    @DisplayName("should publish every status transition immediately and drop the progress event it supersedes")
+    void should_PublishTransitionImmediately_When_StatusChanged() {
+        // given
+        RequestStatusTransition progress = new RequestStatusTransition(REQUEST_ID, RequestStatus.IN_PROGRESS, RequestStatus.IN_PROGRESS);
+        RequestStatusTransition transition = new RequestStatusTransition(REQUEST_ID, RequestStatus.IN_PROGRESS, RequestStatus.READY_TO_COLLECT);
+
+        // when
+        sut.publishTransition(progress, PackingStatus.IN_PROGRESS);
+        sut.publishTransition(transition, PackingStatus.READY_TO_COLLECT);
+
+        // then
+        ArgumentCaptor<Message<RequestStatusChangeMessage>> messageCaptor = ArgumentCaptor.captor();
+        then(kafkaTemplate).should(after(SETTLE_MILLIS).times(1)).send(messageCaptor.capture());
+        assertThat(messageCaptor.getValue().getPayload())
+                .isEqualTo(new RequestStatusChangeMessage(REQUEST_ID, RequestStatus.READY_TO_COLLECT, PackingStatus.READY_TO_COLLECT));
+    }
+
+    @Test
+    @DisplayName("should publish the pending progress event right away on shutdown")
+    void should_PublishPendingProgress_When_Flushed() {
+        // given
+        RequestStatusTransition progress = new RequestStatusTransition(REQUEST_ID, RequestStatus.IN_PROGRESS, RequestStatus.IN_PROGRESS);
+        sut.publishTransition(progress, PackingStatus.IN_PROGRESS);
+
+        // when
+        sut.flushPendingProgress();
+
+        // then
+        ArgumentCaptor<Message<RequestStatusChangeMessage>> messageCaptor = ArgumentCaptor.captor();
+        then(kafkaTemplate).should(times(1)).send(messageCaptor.capture());
+        then(kafkaTemplate).should(times(1)).flush();
+        assertThat(messageCaptor.getValue().getPayload())
+                .isEqualTo(new RequestStatusChangeMessage(REQUEST_ID, RequestStatus.IN_PROGRESS, PackingStatus.IN_PROGRESS));
+        then(kafkaTemplate).should(after(SETTLE_MILLIS).times(1)).send(any(Message.class));
+    }
+}
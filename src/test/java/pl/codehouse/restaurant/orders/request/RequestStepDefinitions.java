@@ -1,27 +1,30 @@
 package pl.codehouse.restaurant.orders.request;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import io.cucumber.java.en.Given;
 import io.cucumber.java.en.Then;
 import io.cucumber.java.en.When;
 import org.mockito.ArgumentCaptor;
 import org.mockito.Mockito;
-import org.springframework.kafka.core.KafkaTemplate;
-import org.springframework.messaging.Message;
 import pl.codehouse.commons.Context;
 import pl.codehouse.commons.ExecutionResult;
 import pl.codehouse.restaurant.orders.exceptions.ResourceNotFoundException;
 import pl.codehouse.restaurant.orders.exceptions.ResourceType;
 import pl.codehouse.restaurant.orders.shelf.PackingStatus;
-import pl.codehouse.restaurant.orders.shelf.ShelfKafkaProperties;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 import reactor.test.StepVerifier;
 
+import java.time.Duration;
 import java.util.List;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
 import static org.mockito.BDDMockito.given;
 import static org.mockito.BDDMockito.then;
 import static org.mockito.Mockito.never;
@@ -37,22 +40,19 @@ import static pl.codehouse.restaurant.orders.request.RequestedMenuItemPayloadBui
 
 public class RequestStepDefinitions {
     private static final int REQUEST_ID = 1100;
-    private static final int VALUE_REPRESENTING_NULL_ID = 0;
     private static final int CUSTOMER_ID_1 = 1001;
 
-    private final RequestRepository repository = Mockito.mock(RequestRepository.class);
-
     private final MenuItemRepository menuItemRepository = Mockito.mock(MenuItemRepository.class);
 
-    private final RequestMenuItemRepository requestMenuItemRepository = Mockito.mock(RequestMenuItemRepository.class);
+    private final RequestBatchRepository requestBatchRepository = Mockito.mock(RequestBatchRepository.class);
 
-    private final ShelfKafkaProperties shelfKafkaProperties = Mockito.mock(ShelfKafkaProperties.class);
+    private final OutboxEventRepository outboxEventRepository = Mockito.mock(OutboxEventRepository.class);
 
-    private final RequestStatusChangePublisher requestStatusChangePublisher = Mockito.mock(RequestStatusChangePublisher.class);
+    private final ObjectMapper objectMapper = new ObjectMapper();
 
-    private final KafkaTemplate<String, ShelfEventDto> kafkaTemplate = Mockito.mock(KafkaTemplate.class);
+    private final NewRequestEventPublisher newRequestEventPublisher = new NewRequestEventPublisher(outboxEventRepository, objectMapper);
 
-    private final CreateCommand command = new CreateCommand(repository, menuItemRepository, requestMenuItemRepository, kafkaTemplate, shelfKafkaProperties, requestStatusChangePublisher);
+    private final CreateCommand command = new CreateCommand(new MenuCatalog(menuItemRepository, new MenuCatalogProperties(Duration.ofMinutes(5), Duration.ZERO)), requestBatchRepository, newRequestEventPublisher);
 
     private Context<RequestPayload> context;
 
@@ -60,7 +60,11 @@ public class RequestStepDefinitions {
 
     private RequestDto expectedRequest;
 
-    private final RequestEntity requestEntity = RequestEntityBuilder.aRequestEntity().withId(REQUEST_ID).withCustomerId(CUSTOMER_ID_1).build();
+    private final RequestEntity requestEntity = RequestEntityBuilder.aRequestEntity()
+            .withId(REQUEST_ID)
+            .withCustomerId(CUSTOMER_ID_1)
+            .withStatus(RequestStatus.NEW)
+            .build();
 
     @Given("customer requests known menu items")
     public void customerRequestsKnownMenuItems() {
@@ -76,11 +80,11 @@ public class RequestStepDefinitions {
 
         context = new Context<>(requestPayload);
 
-        given(menuItemRepository.findAllById(anyList())).willReturn(Flux.just(aMenuItemEntityOne().build(), aMenuItemEntityTwo().build()));
-        given(repository.save(any(RequestEntity.class))).willReturn(Mono.just(requestEntity));
-        given(requestMenuItemRepository.saveAll(anyList())).willReturn(Flux.fromIterable(requestMenuItems));
-
         expectedRequest = RequestDto.from(requestEntity, requestMenuItems, List.of(aMenuItemEntityOne().build(), aMenuItemEntityTwo().build()));
+
+        given(menuItemRepository.findAll()).willReturn(Flux.just(aMenuItemEntityOne().build(), aMenuItemEntityTwo().build()));
+        given(requestBatchRepository.insertRequestWithMenuItems(anyInt(), anyList(), any())).willReturn(Mono.just(expectedRequest));
+        given(outboxEventRepository.insertAll(any(), any(), any())).willReturn(Mono.just(2));
     }
 
     @Given("customer requests any of the menu items not being known to the restaurant")
@@ -91,7 +95,7 @@ public class RequestStepDefinitions {
         ), CUSTOMER_ID_1);
         context = new Context<>(requestPayload);
 
-        given(menuItemRepository.findAllById(anyList())).willReturn(Flux.just(aMenuItemEntityOne().build()));
+        given(menuItemRepository.findAll()).willReturn(Flux.just(aMenuItemEntityOne().build()));
     }
 
     @When("creating new request")
@@ -100,44 +104,38 @@ public class RequestStepDefinitions {
     }
 
     @Then("new request is created")
-    public void newRequestCreated() {
+    public void newRequestCreated() throws JsonProcessingException {
         StepVerifier.create(result)
                 .assertNext(executionResult -> {
                     assertThat(executionResult.isSuccess()).isTrue();
                     assertThat(executionResult.value()).hasValue(expectedRequest);
                 })
                 .verifyComplete();
-        ArgumentCaptor<RequestEntity> requestEntityArgumentCaptor = ArgumentCaptor.captor();
-        ArgumentCaptor<List<RequestMenuItemEntity>> requestMenuItemEntityArgumentCaptor = ArgumentCaptor.captor();
-        ArgumentCaptor<Message<?>> kafkaMessagesArgumentCaptor = ArgumentCaptor.captor();
+        ArgumentCaptor<List<RequestedMenuItemsPayload>> requestedMenuItemsArgumentCaptor = ArgumentCaptor.captor();
+        ArgumentCaptor<String[]> eventTypesArgumentCaptor = ArgumentCaptor.captor();
+        ArgumentCaptor<Integer[]> aggregateIdsArgumentCaptor = ArgumentCaptor.captor();
+        ArgumentCaptor<String[]> payloadsArgumentCaptor = ArgumentCaptor.captor();
 
-
-        then(repository).should(times(1)).save(requestEntityArgumentCaptor.capture());
-        then(requestMenuItemRepository).should(times(1)).saveAll(requestMenuItemEntityArgumentCaptor.capture());
-        then(requestStatusChangePublisher).should(times(1)).publishChange(REQUEST_ID, RequestStatus.IN_PROGRESS, PackingStatus.NOT_STARTED);
-        then(kafkaTemplate).should(times(1)).send(kafkaMessagesArgumentCaptor.capture());
+        then(requestBatchRepository).should(times(1)).insertRequestWithMenuItems(eq(CUSTOMER_ID_1), requestedMenuItemsArgumentCaptor.capture(), isNull());
+        then(outboxEventRepository).should(times(1))
+                .insertAll(eventTypesArgumentCaptor.capture(), aggregateIdsArgumentCaptor.capture(), payloadsArgumentCaptor.capture());
 
         // And
-        assertThat(requestEntityArgumentCaptor.getValue())
-                .hasFieldOrPropertyWithValue("id", VALUE_REPRESENTING_NULL_ID)
-                .hasFieldOrPropertyWithValue("customerId", requestEntity.customerId());
-
-        assertThat(requestMenuItemEntityArgumentCaptor.getValue())
+        assertThat(requestedMenuItemsArgumentCaptor.getValue())
                 .hasSize(2)
-                .allSatisfy(requestMenuItemEntity -> assertThat(requestMenuItemEntity.requestId()).isEqualTo(REQUEST_ID))
-                .extracting(RequestMenuItemEntity::menuItemId)
-                .allSatisfy(menuItemId -> assertThat(List.of(MENU_ITEM_1_ID, MENU_ITEM_2_ID)).contains(menuItemId));
-
-        List<Message<?>> actualKafkaMessages = kafkaMessagesArgumentCaptor.getAllValues();
-        assertThat(actualKafkaMessages)
-                .hasSize(1)
-                .satisfiesExactly(message -> assertThat(message.getPayload()).isInstanceOf(ShelfEventDto.class))
-                .first()
-                .satisfies(message -> assertThat((ShelfEventDto) message.getPayload())
-                        .hasFieldOrPropertyWithValue("requestId", requestEntity.id())
-                        .hasFieldOrPropertyWithValue("eventType", EventType.NEW_REQUEST)
-                )
-        ;
+                .extracting(RequestedMenuItemsPayload::menuId)
+                .containsExactlyInAnyOrder(MENU_ITEM_1_ID, MENU_ITEM_2_ID);
+
+        assertThat(eventTypesArgumentCaptor.getValue())
+                .containsExactly(OutboxEventType.SHELF_EVENT.name(), OutboxEventType.REQUEST_STATUS_CHANGE.name());
+        assertThat(aggregateIdsArgumentCaptor.getValue()).containsOnly(REQUEST_ID);
+
+        String[] payloads = payloadsArgumentCaptor.getValue();
+        assertThat(objectMapper.readValue(payloads[0], ShelfEventDto.class))
+                .hasFieldOrPropertyWithValue("requestId", requestEntity.id())
+                .hasFieldOrPropertyWithValue("eventType", EventType.NEW_REQUEST);
+        assertThat(objectMapper.readValue(payloads[1], RequestStatusChangeMessage.class))
+                .isEqualTo(new RequestStatusChangeMessage(REQUEST_ID, RequestStatus.NEW, PackingStatus.NOT_STARTED));
     }
 
     @Then("no request is created")
@@ -149,7 +147,7 @@ public class RequestStepDefinitions {
                         .isInstanceOf(ResourceNotFoundException.class))
                 .verify();
 
-        then(repository).should(never()).save(any());
-        then(requestMenuItemRepository).should(never()).saveAll(anyList());
+        then(requestBatchRepository).should(never()).insertRequestWithMenuItems(anyInt(), anyList(), any());
+        then(outboxEventRepository).should(never()).insertAll(any(), any(), any());
     }
 }
@@ -2,9 +2,9 @@ package pl.codehouse.restaurant.orders.request;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
-import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.BDDMockito.given;
 import static org.mockito.BDDMockito.then;
+import static org.mockito.Mockito.lenient;
 import static org.mockito.Mockito.times;
 import static pl.codehouse.restaurant.orders.shelf.PackingStatus.READY_TO_COLLECT;
 
@@ -16,6 +16,8 @@ import org.mockito.Captor;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.messaging.Message;
+import org.springframework.transaction.reactive.TransactionCallback;
+import org.springframework.transaction.reactive.TransactionalOperator;
 import pl.codehouse.commons.Context;
 import pl.codehouse.commons.ExecutionResult;
 import pl.codehouse.restaurant.orders.shelf.PackingStatus;
@@ -28,13 +30,16 @@ class UpdatePrepairedMenuItemsCommandTest {
 
     private static final String TEST_TOPIC = "test-topic";
     @Mock
-    private RequestRepository requestRepository;
+    private RequestBatchRepository requestBatchRepository;
 
     @Mock
-    private RequestMenuItemRepository requestMenuItemRepository;
+    private RequestStatusChangePublisher requestStatusChangePublisher;
 
     @Mock
-    private RequestStatusChangePublisher requestStatusChangePublisher;
+    private RequestCache requestCache;
+
+    @Mock
+    private TransactionalOperator transactionalOperator;
 
     @Captor
     private ArgumentCaptor<Message<RequestStatusChangeMessage>> messageCaptor;
@@ -44,10 +49,15 @@ class UpdatePrepairedMenuItemsCommandTest {
 
     @BeforeEach
     void setUp() {
+        lenient().when(transactionalOperator.execute(any())).thenAnswer(invocation -> {
+            TransactionCallback<RequestStatusTransition> work = invocation.getArgument(0);
+            return Flux.from(work.doInTransaction(null));
+        });
         updateCommand = new UpdatePrepairedMenuItemsCommand(
-                requestRepository,
-                requestMenuItemRepository,
-                requestStatusChangePublisher
+                requestBatchRepository,
+                requestStatusChangePublisher,
+                requestCache,
+                transactionalOperator
         );
     }
 
@@ -63,10 +73,10 @@ class UpdatePrepairedMenuItemsCommandTest {
         RequestMenuItemEntity existingItem = new RequestMenuItemEntity(1, requestId, menuItemId, 3, 0, false);
         RequestMenuItemEntity updatedItem = existingItem.withUpdatedPreparedCnt(preparedQuantity);
 
-        given(requestMenuItemRepository.findByRequestIdAndMenuItemId(requestId, menuItemId)).willReturn(Mono.just(existingItem));
-        given(requestMenuItemRepository.save(any(RequestMenuItemEntity.class))).willReturn(Mono.just(updatedItem));
-        given(requestMenuItemRepository.findByRequestId(requestId)).willReturn(Flux.just(updatedItem));
-        given(requestRepository.updateStatusById(anyInt(), any(RequestStatus.class))).willReturn(Mono.just(true));
+        given(requestBatchRepository.incrementPrepared(requestId, menuItemId, preparedQuantity))
+                .willReturn(Mono.just(new PreparedItemUpdate(updatedItem, 0)));
+        given(requestBatchRepository.transitionStatusFromCounters(requestId))
+                .willReturn(Mono.just(new RequestStatusTransition(requestId, RequestStatus.NEW, RequestStatus.IN_PROGRESS)));
 
         // When
         Mono<ExecutionResult<PackingStatus>> result = updateCommand.execute(context);
@@ -80,8 +90,10 @@ class UpdatePrepairedMenuItemsCommandTest {
                 .verifyComplete();
 
         // And
-        then(requestRepository).should(times(1)).updateStatusById(requestId, RequestStatus.IN_PROGRESS);
-        then(requestStatusChangePublisher).should(times(1)).publishChange(requestId, RequestStatus.IN_PROGRESS, PackingStatus.IN_PROGRESS);
+        then(requestBatchRepository).should(times(1)).transitionStatusFromCounters(requestId);
+        then(requestStatusChangePublisher).should(times(1))
+                .publishTransition(new RequestStatusTransition(requestId, RequestStatus.NEW, RequestStatus.IN_PROGRESS), PackingStatus.IN_PROGRESS);
+        then(requestCache).should(times(1)).invalidate(requestId);
     }
 
     @Test
@@ -96,10 +108,10 @@ class UpdatePrepairedMenuItemsCommandTest {
         RequestMenuItemEntity existingItem = new RequestMenuItemEntity(1, requestId, menuItemId, 3, 0, false);
         RequestMenuItemEntity updatedItem = existingItem.withUpdatedPreparedCnt(preparedQuantity);
 
-        given(requestMenuItemRepository.findByRequestIdAndMenuItemId(requestId, menuItemId)).willReturn(Mono.just(existingItem));
-        given(requestMenuItemRepository.save(any(RequestMenuItemEntity.class))).willReturn(Mono.just(updatedItem));
-        given(requestMenuItemRepository.findByRequestId(requestId)).willReturn(Flux.just(updatedItem));
-        given(requestRepository.updateStatusById(anyInt(), any(RequestStatus.class))).willReturn(Mono.just(true));
+        given(requestBatchRepository.incrementPrepared(requestId, menuItemId, preparedQuantity))
+                .willReturn(Mono.just(new PreparedItemUpdate(updatedItem, 0)));
+        given(requestBatchRepository.transitionStatusFromCounters(requestId))
+                .willReturn(Mono.just(new RequestStatusTransition(requestId, RequestStatus.NEW, RequestStatus.READY_TO_COLLECT)));
 
         // When
         Mono<ExecutionResult<PackingStatus>> result = updateCommand.execute(context);
@@ -113,8 +125,34 @@ class UpdatePrepairedMenuItemsCommandTest {
                 .verifyComplete();
 
         // And
-        then(requestRepository).should().updateStatusById(requestId, RequestStatus.READY_TO_COLLECT);
-        then(requestStatusChangePublisher).should(times(1)).publishChange(requestId, RequestStatus.READY_TO_COLLECT, READY_TO_COLLECT);
+        then(requestBatchRepository).should().transitionStatusFromCounters(requestId);
+        then(requestStatusChangePublisher).should(times(1))
+                .publishTransition(new RequestStatusTransition(requestId, RequestStatus.NEW, RequestStatus.READY_TO_COLLECT), READY_TO_COLLECT);
+    }
+
+    @Test
+    void Should_CapPreparedCountAndSetStatusToReadyToCollect_When_MoreItemsArePreparedThanOrdered() {
+        // Given
+        int requestId = 1;
+        int menuItemId = 101;
+        int preparedQuantity = 5;
+        UpdatePreparedMenuItemsDto updateDto = new UpdatePreparedMenuItemsDto(requestId, menuItemId, preparedQuantity);
+        Context<UpdatePreparedMenuItemsDto> context = new Context<>(updateDto);
+
+        RequestMenuItemEntity cappedItem = new RequestMenuItemEntity(1, requestId, menuItemId, 3, 3, false);
+
+        given(requestBatchRepository.incrementPrepared(requestId, menuItemId, preparedQuantity))
+                .willReturn(Mono.just(new PreparedItemUpdate(cappedItem, 2)));
+        given(requestBatchRepository.transitionStatusFromCounters(requestId))
+                .willReturn(Mono.just(new RequestStatusTransition(requestId, RequestStatus.NEW, RequestStatus.READY_TO_COLLECT)));
+
+        // When
+        Mono<ExecutionResult<PackingStatus>> result = updateCommand.execute(context);
+
+        // Then
+        StepVerifier.create(result)
+                .assertNext(executionResult -> assertThat(executionResult.handle()).isEqualTo(READY_TO_COLLECT))
+                .verifyComplete();
     }
 
     @Test
@@ -126,7 +164,7 @@ class UpdatePrepairedMenuItemsCommandTest {
         UpdatePreparedMenuItemsDto updateDto = new UpdatePreparedMenuItemsDto(requestId, menuItemId, preparedQuantity);
         Context<UpdatePreparedMenuItemsDto> context = new Context<>(updateDto);
 
-        given(requestMenuItemRepository.findByRequestIdAndMenuItemId(requestId, menuItemId)).willReturn(Mono.error(new RuntimeException("Database error")));
+        given(requestBatchRepository.incrementPrepared(requestId, menuItemId, preparedQuantity)).willReturn(Mono.error(new RuntimeException("Database error")));
 
         // When
         Mono<ExecutionResult<PackingStatus>> result = updateCommand.execute(context);
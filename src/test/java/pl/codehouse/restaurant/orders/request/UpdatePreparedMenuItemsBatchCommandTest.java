@@ -0,0 +1,170 @@
+package pl.codehouse.restaurant.orders.request;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.then;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.reactive.TransactionCallback;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import pl.codehouse.commons.Context;
+import pl.codehouse.commons.ExecutionResult;
+import pl.codehouse.restaurant.orders.shelf.PackingStatus;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.test.StepVerifier;
+
+@ExtendWith(MockitoExtension.class)
+class UpdatePreparedMenuItemsBatchCommandTest {
+    private static final int REQUEST_ID = 1;
+    private static final int MENU_ITEM_1_ID = 101;
+    private static final int MENU_ITEM_2_ID = 102;
+
+    @Mock
+    private RequestBatchRepository requestBatchRepository;
+
+    @Mock
+    private RequestStatusChangePublisher requestStatusChangePublisher;
+
+    @Mock
+    private RequestCache requestCache;
+
+    @Mock
+    private TransactionalOperator transactionalOperator;
+
+    private UpdatePreparedMenuItemsBatchCommand updateCommand;
+
+    @BeforeEach
+    void setUp() {
+        lenient().when(transactionalOperator.execute(any())).thenAnswer(invocation -> {
+            TransactionCallback<RequestStatusTransition> work = invocation.getArgument(0);
+            return Flux.from(work.doInTransaction(null));
+        });
+        updateCommand = new UpdatePreparedMenuItemsBatchCommand(
+                requestBatchRepository,
+                requestStatusChangePublisher,
+                requestCache,
+                transactionalOperator
+        );
+    }
+
+    @Test
+    void Should_UpdateAllMenuItemsAndPublishSingleStatusChange_When_SeveralItemsAreCollected() {
+        // Given
+        Context<UpdatePreparedMenuItemsBatchDto> context = new Context<>(new UpdatePreparedMenuItemsBatchDto(REQUEST_ID, List.of(
+                new PreparedMenuItemDelta(MENU_ITEM_1_ID, 1),
+                new PreparedMenuItemDelta(MENU_ITEM_2_ID, 2))));
+
+        given(requestBatchRepository.incrementPrepared(eq(REQUEST_ID), anyList())).willReturn(Flux.just(
+                new PreparedItemUpdate(new RequestMenuItemEntity(1, REQUEST_ID, MENU_ITEM_1_ID, 1, 1, false), 0),
+                new PreparedItemUpdate(new RequestMenuItemEntity(2, REQUEST_ID, MENU_ITEM_2_ID, 2, 2, true), 0)));
+        given(requestBatchRepository.transitionStatusFromCounters(REQUEST_ID))
+                .willReturn(Mono.just(new RequestStatusTransition(REQUEST_ID, RequestStatus.NEW, RequestStatus.READY_TO_COLLECT)));
+
+        // When
+        Mono<ExecutionResult<PackingStatus>> result = updateCommand.execute(context);
+
+        // Then
+        StepVerifier.create(result)
+                .assertNext(executionResult -> assertThat(executionResult.handle()).isEqualTo(PackingStatus.READY_TO_COLLECT))
+                .verifyComplete();
+
+        // And
+        then(requestBatchRepository).should(times(1)).transitionStatusFromCounters(REQUEST_ID);
+        then(requestStatusChangePublisher).should(times(1))
+                .publishTransition(new RequestStatusTransition(REQUEST_ID, RequestStatus.NEW, RequestStatus.READY_TO_COLLECT), PackingStatus.READY_TO_COLLECT);
+        then(requestCache).should(times(1)).invalidate(REQUEST_ID);
+    }
+
+    @Test
+    void Should_MergeDeltasOfTheSameMenuItem_When_MenuItemIsCollectedTwice() {
+        // Given
+        Context<UpdatePreparedMenuItemsBatchDto> context = new Context<>(new UpdatePreparedMenuItemsBatchDto(REQUEST_ID, List.of(
+                new PreparedMenuItemDelta(MENU_ITEM_1_ID, 1),
+                new PreparedMenuItemDelta(MENU_ITEM_1_ID, 2))));
+
+        given(requestBatchRepository.incrementPrepared(eq(REQUEST_ID), anyList())).willReturn(Flux.just(
+                new PreparedItemUpdate(new RequestMenuItemEntity(1, REQUEST_ID, MENU_ITEM_1_ID, 5, 3, false), 0)));
+        given(requestBatchRepository.transitionStatusFromCounters(REQUEST_ID))
+                .willReturn(Mono.just(new RequestStatusTransition(REQUEST_ID, RequestStatus.NEW, RequestStatus.IN_PROGRESS)));
+
+        // When
+        Mono<ExecutionResult<PackingStatus>> result = updateCommand.execute(context);
+
+        // Then
+        StepVerifier.create(result)
+                .assertNext(executionResult -> assertThat(executionResult.handle()).isEqualTo(PackingStatus.IN_PROGRESS))
+                .verifyComplete();
+
+        ArgumentCaptor<List<PreparedMenuItemDelta>> deltasCaptor = ArgumentCaptor.captor();
+        then(requestBatchRepository).should(times(1)).incrementPrepared(eq(REQUEST_ID), deltasCaptor.capture());
+        assertThat(deltasCaptor.getValue()).containsExactly(new PreparedMenuItemDelta(MENU_ITEM_1_ID, 3));
+    }
+
+    @Test
+    void Should_NotPublishStatusChange_When_RepositoryOperationFails() {
+        // Given
+        Context<UpdatePreparedMenuItemsBatchDto> context = new Context<>(new UpdatePreparedMenuItemsBatchDto(REQUEST_ID, List.of(
+                new PreparedMenuItemDelta(MENU_ITEM_1_ID, 1))));
+
+        given(requestBatchRepository.incrementPrepared(eq(REQUEST_ID), anyList())).willReturn(Flux.error(new RuntimeException("Database error")));
+
+        // When
+        Mono<ExecutionResult<PackingStatus>> result = updateCommand.execute(context);
+
+        // Then
+        StepVerifier.create(result)
+                .expectError(RuntimeException.class)
+                .verify();
+
+        then(requestBatchRepository).should(never()).transitionStatusFromCounters(REQUEST_ID);
+        then(requestStatusChangePublisher).shouldHaveNoInteractions();
+    }
+
+    @Test
+    void Should_InvalidateAndPublishStatusChange_When_TransactionIsCommitted() {
+        // Given
+        Context<UpdatePreparedMenuItemsBatchDto> context = new Context<>(new UpdatePreparedMenuItemsBatchDto(REQUEST_ID, List.of(
+                new PreparedMenuItemDelta(MENU_ITEM_1_ID, 1))));
+        Sinks.Empty<Void> commit = Sinks.empty();
+
+        given(transactionalOperator.execute(any())).willAnswer(invocation -> {
+            TransactionCallback<RequestStatusTransition> work = invocation.getArgument(0);
+            return Flux.from(work.doInTransaction(null)).concatWith(commit.asMono().then(Mono.<RequestStatusTransition>empty()));
+        });
+        given(requestBatchRepository.incrementPrepared(eq(REQUEST_ID), anyList())).willReturn(Flux.just(
+                new PreparedItemUpdate(new RequestMenuItemEntity(1, REQUEST_ID, MENU_ITEM_1_ID, 1, 1, false), 0)));
+        given(requestBatchRepository.transitionStatusFromCounters(REQUEST_ID))
+                .willReturn(Mono.just(new RequestStatusTransition(REQUEST_ID, RequestStatus.NEW, RequestStatus.READY_TO_COLLECT)));
+
+        // When
+        Mono<ExecutionResult<PackingStatus>> result = updateCommand.execute(context);
+
+        // Then
+        StepVerifier.create(result)
+                .then(() -> {
+                    then(requestCache).shouldHaveNoInteractions();
+                    then(requestStatusChangePublisher).shouldHaveNoInteractions();
+                    commit.tryEmitEmpty();
+                })
+                .assertNext(executionResult -> assertThat(executionResult.handle()).isEqualTo(PackingStatus.READY_TO_COLLECT))
+                .verifyComplete();
+
+        then(requestCache).should(times(1)).invalidate(REQUEST_ID);
+        then(requestStatusChangePublisher).should(times(1))
+                .publishTransition(new RequestStatusTransition(REQUEST_ID, RequestStatus.NEW, RequestStatus.READY_TO_COLLECT), PackingStatus.READY_TO_COLLECT);
+    }
+}
@@ -0,0 +1,99 @@
+package pl.codehouse.restaurant.orders.shelf;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.test.StepVerifier;
+
+@DisplayName("Keyed Serial Executor Tests")
+class KeyedSerialExecutorTest {
+    private static final int REQUEST_1_ID = 1111;
+    private static final int REQUEST_2_ID = 1121;
+
+    private final KeyedSerialExecutor sut = new KeyedSerialExecutor(new SimpleMeterRegistry());
+
+    @Test
+    @DisplayName("should run work of the same request only once the previous work has finished")
+    void should_RunWorkInOrder_When_SubmittedForTheSameRequest() {
+        // given
+        List<String> events = new CopyOnWriteArrayList<>();
+        Sinks.Empty<Void> firstWorkRelease = Sinks.empty();
+        Mono<String> first = sut.execute(REQUEST_1_ID, () -> firstWorkRelease.asMono()
+                .then(Mono.fromCallable(() -> events.add("first")))
+                .thenReturn("first"));
+        Mono<String> second = sut.execute(REQUEST_1_ID, () -> Mono.fromCallable(() -> events.add("second")).thenReturn("second"));
+
+        // when
+        first.subscribe();
+        second.subscribe();
+
+        // then
+        assertThat(events).isEmpty();
+        firstWorkRelease.tryEmitEmpty();
+        assertThat(events).containsExactly("first", "second");
+        assertThat(sut.activeLanes()).isZero();
+    }
+
+    @Test
+    @DisplayName("should run work of different requests independently")
+    void should_RunWorkInParallel_When_SubmittedForDifferentRequests() {
+        // given
+        Sinks.Empty<Void> blockedWork = Sinks.empty();
+        sut.execute(REQUEST_1_ID, blockedWork::asMono).subscribe();
+
+        // when
+        Mono<String> otherRequestWork = sut.execute(REQUEST_2_ID, () -> Mono.just("done"));
+
+        // then
+        StepVerifier.create(otherRequestWork)
+                .expectNext("done")
+                .verifyComplete();
+        assertThat(sut.activeLanes()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("should run next work of the same request when the previous work failed")
+    void should_RunNextWork_When_PreviousWorkFailed() {
+        // given
+        Mono<String> failing = sut.execute(REQUEST_1_ID, () -> Mono.error(new IllegalStateException("Packing failed")));
+        Mono<String> next = sut.execute(REQUEST_1_ID, () -> Mono.just("done"));
+
+        // when & then
+        StepVerifier.create(failing)
+                .expectError(IllegalStateException.class)
+                .verify();
+        StepVerifier.create(next)
+                .expectNext("done")
+                .verifyComplete();
+        assertThat(sut.activeLanes()).isZero();
+    }
+
+    @Test
+    @DisplayName("should run next work only once the running work has finished when the waiting work between them was cancelled")
+    void should_KeepWorkInOrder_When_WaitingWorkWasCancelled() {
+        // given
+        List<String> events = new CopyOnWriteArrayList<>();
+        Sinks.Empty<Void> firstWorkRelease = Sinks.empty();
+        sut.execute(REQUEST_1_ID, () -> firstWorkRelease.asMono()
+                        .then(Mono.fromCallable(() -> events.add("first"))))
+                .subscribe();
+        Disposable cancelledWork = sut.execute(REQUEST_1_ID, () -> Mono.fromCallable(() -> events.add("cancelled"))).subscribe();
+        sut.execute(REQUEST_1_ID, () -> Mono.fromCallable(() -> events.add("third"))).subscribe();
+
+        // when
+        cancelledWork.dispose();
+
+        // then
+        assertThat(events).isEmpty();
+        firstWorkRelease.tryEmitEmpty();
+        assertThat(events).containsExactly("first", "third");
+        assertThat(sut.activeLanes()).isZero();
+    }
+}
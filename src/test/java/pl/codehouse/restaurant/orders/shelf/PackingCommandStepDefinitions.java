@@ -11,10 +11,10 @@ import org.mockito.internal.stubbing.answers.ReturnsElementsOf;
 import pl.codehouse.commons.Context;
 import pl.codehouse.commons.ExecutionResult;
 import pl.codehouse.restaurant.orders.request.PackingActionResult;
+import pl.codehouse.restaurant.orders.request.PreparedMenuItemDelta;
 import pl.codehouse.restaurant.orders.request.RequestDto;
 import pl.codehouse.restaurant.orders.request.RequestService;
 import pl.codehouse.restaurant.orders.request.RequestStatus;
-import pl.codehouse.restaurant.orders.request.UpdatePreparedMenuItemsDto;
 import reactor.core.publisher.Mono;
 import reactor.test.StepVerifier;
 
@@ -23,6 +23,8 @@ import java.util.stream.IntStream;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.BDDMockito.given;
 import static org.mockito.BDDMockito.then;
 import static org.mockito.Mockito.never;
@@ -38,7 +40,7 @@ public class PackingCommandStepDefinitions {
 
     private final Shelf shelf = Mockito.mock(Shelf.class);
     private final RequestService requestService = Mockito.mock(RequestService.class);
-    private final ArgumentCaptor<UpdatePreparedMenuItemsDto> updatePreparedMenuItemsDtoArgumentCaptor = ArgumentCaptor.captor();
+    private final ArgumentCaptor<List<PreparedMenuItemDelta>> preparedMenuItemDeltasArgumentCaptor = ArgumentCaptor.captor();
     private final PackingCommand sut = new PackingCommand(shelf, requestService);
     private Mono<ExecutionResult<PackingActionResult>> executionResult;
 
@@ -67,9 +69,7 @@ public class PackingCommandStepDefinitions {
                 .withTotalItemsCount(totalMenuItems)
                 .withStatus(totalMenuItems == collectedMenuItems ? RequestStatus.READY_TO_COLLECT : RequestStatus.IN_PROGRESS)
                 .build();
-        given(requestService.findById(REQUEST_ID))
-                .willReturn(Mono.just(initialRequestDto))
-                .willReturn(Mono.just(updatedRequestDto));
+        given(requestService.findCurrentById(REQUEST_ID)).willReturn(Mono.just(initialRequestDto));
 
         List<Mono<ShelfTakeResult>> responses = IntStream.range(0, totalMenuItems)
                 .mapToObj(i -> mapBasedOn(i, collectedItems))
@@ -77,7 +77,7 @@ public class PackingCommandStepDefinitions {
                 .toList();
 
         given(shelf.take(any())).willAnswer(new ReturnsElementsOf(responses));
-        given(requestService.updateCollectedItems(any())).willReturn(Mono.just(updatedRequestDto));
+        given(requestService.updateCollectedItems(eq(REQUEST_ID), anyList())).willReturn(Mono.just(updatedRequestDto));
     }
 
     @Given("request containing Menu Items of type 'immediate'")
@@ -101,10 +101,8 @@ public class PackingCommandStepDefinitions {
                 .withTotalItemsCount(3)
                 .withStatus(RequestStatus.READY_TO_COLLECT)
                 .build();
-        given(requestService.findById(REQUEST_ID))
-                .willReturn(Mono.just(initialRequestDto))
-                .willReturn(Mono.just(updatedRequestDto));
-        given(requestService.updateCollectedItems(any())).willReturn(Mono.just(updatedRequestDto));
+        given(requestService.findCurrentById(REQUEST_ID)).willReturn(Mono.just(initialRequestDto));
+        given(requestService.updateCollectedItems(eq(REQUEST_ID), anyList())).willReturn(Mono.just(updatedRequestDto));
     }
 
     @When("packing request")
@@ -127,16 +125,15 @@ public class PackingCommandStepDefinitions {
                 .verifyComplete();
     }
 
-    @And("requested menu items where updated {int} times by {int}")
-    public void and_RequestedMenuItemsWhereUpdatedByX(int updatedCollectedItems, int itemsTakenFromShelf) {
-        then(requestService).should(times(updatedCollectedItems)).updateCollectedItems(updatePreparedMenuItemsDtoArgumentCaptor.capture());
+    @And("{int} requested menu items where updated at once by {int}")
+    public void and_RequestedMenuItemsWhereUpdatedAtOnceByX(int updatedMenuItems, int itemsTakenFromShelf) {
+        then(requestService).should(times(1)).updateCollectedItems(eq(REQUEST_ID), preparedMenuItemDeltasArgumentCaptor.capture());
 
         List<Integer> collectedMenuItemIds = IntStream.range(0, collectedItems).mapToObj(i -> MENU_ITEM_1_ID + i).toList();
-        List<UpdatePreparedMenuItemsDto> capturedValues = updatePreparedMenuItemsDtoArgumentCaptor.getAllValues();
-        assertThat(capturedValues)
-                .hasSize(collectedItems)
-                .allSatisfy(updateDto -> assertThat(updateDto).hasFieldOrPropertyWithValue("preparedQuantity", itemsTakenFromShelf))
-                .extracting(UpdatePreparedMenuItemsDto::menuItemId)
+        assertThat(preparedMenuItemDeltasArgumentCaptor.getValue())
+                .hasSize(updatedMenuItems)
+                .allSatisfy(delta -> assertThat(delta).hasFieldOrPropertyWithValue("preparedQuantity", itemsTakenFromShelf))
+                .extracting(PreparedMenuItemDelta::menuItemId)
                 .containsAll(collectedMenuItemIds);
     }
 
@@ -0,0 +1,135 @@
+package pl.codehouse.restaurant.orders.shelf;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.then;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.boot.autoconfigure.kafka.KafkaProperties;
+import pl.codehouse.commons.ExecutionResult;
+import pl.codehouse.restaurant.orders.request.PackingActionResult;
+import pl.codehouse.restaurant.orders.request.RequestStatus;
+import pl.codehouse.restaurant.orders.request.ShelfEventDto;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.kafka.receiver.ReceiverOffset;
+import reactor.kafka.receiver.ReceiverRecord;
+import reactor.test.StepVerifier;
+
+@DisplayName("Reactive Shelf Event Consumer Tests")
+@ExtendWith(MockitoExtension.class)
+class ReactiveShelfEventConsumerTest {
+    private static final String SHELF_TOPIC = "shelf-events";
+    private static final int REQUEST_1_ID = 1111;
+    private static final int REQUEST_2_ID = 1121;
+
+    @Mock
+    private PackingCommand packingCommand;
+
+    @Mock
+    private ReceiverOffset firstOffset;
+
+    @Mock
+    private ReceiverOffset secondOffset;
+
+    private ReactiveShelfEventConsumer sut;
+
+    @BeforeEach
+    void setUp() {
+        sut = new ReactiveShelfEventConsumer(
+                packingCommand,
+                new KeyedSerialExecutor(new SimpleMeterRegistry()),
+                new KafkaProperties(),
+                new ShelfKafkaProperties(SHELF_TOPIC, 2),
+                new ShelfReactiveConsumerProperties(2, Duration.ofSeconds(1), 100, 2, Duration.ofMillis(1))
+        );
+    }
+
+    @Test
+    @DisplayName("should acknowledge the record only once its packing finished")
+    void should_AcknowledgeRecord_When_PackingFinished() {
+        // given
+        Sinks.One<ExecutionResult<PackingActionResult>> packing = Sinks.one();
+        given(packingCommand.execute(any())).willReturn(packing.asMono());
+
+        // when
+        sut.consume(Flux.just(aRecord(0, 0, REQUEST_1_ID, firstOffset))).subscribe();
+
+        // then
+        then(firstOffset).should(never()).acknowledge();
+        packing.tryEmitValue(ExecutionResult.success(aPackingResult(REQUEST_1_ID)));
+        then(firstOffset).should(times(1)).acknowledge();
+    }
+
+    @Test
+    @DisplayName("should pack records of the same partition one after another")
+    void should_PackRecordsInOrder_When_RecordsShareThePartition() {
+        // given
+        Sinks.One<ExecutionResult<PackingActionResult>> firstPacking = Sinks.one();
+        given(packingCommand.execute(any()))
+                .willReturn(firstPacking.asMono())
+                .willReturn(Mono.just(ExecutionResult.success(aPackingResult(REQUEST_2_ID))));
+
+        // when
+        sut.consume(Flux.just(aRecord(0, 0, REQUEST_1_ID, firstOffset), aRecord(0, 1, REQUEST_2_ID, secondOffset))).subscribe();
+
+        // then
+        then(packingCommand).should(times(1)).execute(any());
+        firstPacking.tryEmitValue(ExecutionResult.success(aPackingResult(REQUEST_1_ID)));
+        then(packingCommand).should(times(2)).execute(any());
+
+        InOrder acknowledgements = inOrder(firstOffset, secondOffset);
+        acknowledgements.verify(firstOffset).acknowledge();
+        acknowledgements.verify(secondOffset).acknowledge();
+    }
+
+    @Test
+    @DisplayName("should acknowledge the record once a retried packing succeeded")
+    void should_AcknowledgeRecord_When_RetriedPackingSucceeded() {
+        // given
+        given(packingCommand.execute(any()))
+                .willReturn(Mono.error(new IllegalStateException("Shelf unavailable")))
+                .willReturn(Mono.just(ExecutionResult.success(aPackingResult(REQUEST_1_ID))));
+
+        // when & then
+        StepVerifier.create(sut.consume(Flux.just(aRecord(1, 0, REQUEST_1_ID, firstOffset))))
+                .verifyComplete();
+        then(packingCommand).should(times(2)).execute(any());
+        then(firstOffset).should(times(1)).acknowledge();
+    }
+
+    @Test
+    @DisplayName("should leave the record unacknowledged when its packing failed after all retries")
+    void should_NotAcknowledgeRecord_When_PackingFailed() {
+        // given
+        given(packingCommand.execute(any())).willReturn(Mono.error(new IllegalStateException("Shelf unavailable")));
+
+        // when & then
+        StepVerifier.create(sut.consume(Flux.just(aRecord(1, 0, REQUEST_1_ID, firstOffset))))
+                .verifyError();
+        then(packingCommand).should(times(3)).execute(any());
+        then(firstOffset).should(never()).acknowledge();
+    }
+
+    private static ReceiverRecord<String, ShelfEventDto> aRecord(int partition, long offset, int requestId, ReceiverOffset receiverOffset) {
+        ConsumerRecord<String, ShelfEventDto> record = new ConsumerRecord<>(SHELF_TOPIC, partition, offset, null, ShelfEventDto.newRequestEvent(requestId));
+        return new ReceiverRecord<>(record, receiverOffset);
+    }
+
+    private static PackingActionResult aPackingResult(int requestId) {
+        return new PackingActionResult(requestId, 0, 1, RequestStatus.IN_PROGRESS);
+    }
+}
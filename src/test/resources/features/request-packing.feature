@@ -7,7 +7,7 @@ Feature: Packing menu items
     Given <collected menu items> out of <total menu items> total menu items got collected from shelf
     When packing request
     Then request status should be set to <expected request status>
-    And requested menu items where updated <collected menu items> times by 1
+    And <collected menu items> requested menu items where updated at once by 1
     Examples:
       | collected menu items | total menu items | expected request status |
       | 3                    | 3                | READY_TO_COLLECT        |